@@ -26,32 +26,166 @@ package net.rhapso.graph;
 
 import clutter.Bag;
 import clutter.SetBag;
-import com.google.common.collect.Sets;
 
 import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public class AdjacencyList<T> implements Graph<T> {
     final private Bag<T, T> adjacentyList;
     final private Bag<T, T> doubleLinkedGraph;
-    final private Set<T> nodes = new HashSet<T>();
+    final private Set<T> nodes;
+    final private NodeIndex<T> index;
+    private int[] parent;
+    private int[] componentSize;
+    private int componentCount;
+    private final DegreeBuckets outDegrees, inDegrees, degrees;
+    private int version;
 
     public AdjacencyList() {
+        this(0);
+    }
+
+    /**
+     * Sizes the node tables for the given number of nodes up front, so loading
+     * that many does not rehash them.
+     */
+    public AdjacencyList(int expectedNodes) {
         this.adjacentyList = new SetBag<T,T>();
         doubleLinkedGraph = new SetBag<T,T>();
+        nodes = new HashSet<T>(Math.max(16, expectedNodes * 4 / 3 + 1));
+        index = new NodeIndex<T>(expectedNodes);
+        parent = new int[Math.max(16, expectedNodes)];
+        componentSize = new int[parent.length];
+        outDegrees = new DegreeBuckets(expectedNodes);
+        inDegrees = new DegreeBuckets(expectedNodes);
+        degrees = new DegreeBuckets(expectedNodes);
+    }
+
+    /**
+     * Which degree of a node a query ranks by: its children, its parents, or its
+     * distinct neighbors in either direction.
+     */
+    public static enum Direction {
+        OUT, IN, UNDIRECTED
     }
 
     public void addEdge(T from, T to) {
+        int fromId = intern(from);
+        int toId = intern(to);
+        if (adjacentyList.getValues(from).contains(to)) {
+            return;
+        }
         adjacentyList.put(from, to);
-        doubleLinkedGraph.put(from, to);
-        doubleLinkedGraph.put(to, from);
+        countChild(fromId, toId);
+        if (!doubleLinkedGraph.getValues(from).contains(to)) {
+            doubleLinkedGraph.put(from, to);
+            doubleLinkedGraph.put(to, from);
+            countNeighbors(fromId, toId);
+        }
         nodes.add(from);
         nodes.add(to);
+        union(fromId, toId);
+        version++;
+    }
+
+    private void countChild(int from, int to) {
+        outDegrees.increment(from);
+        inDegrees.increment(to);
+    }
+
+    private void countNeighbors(int from, int to) {
+        degrees.increment(from);
+        if (from != to) {
+            degrees.increment(to);
+        }
+    }
+
+    private int intern(T tee) {
+        int known = index.size();
+        int id = index.intern(tee);
+        if (id == known) {
+            if (id == parent.length) {
+                parent = Arrays.copyOf(parent, id * 2);
+                componentSize = Arrays.copyOf(componentSize, id * 2);
+            }
+            parent[id] = id;
+            componentSize[id] = 1;
+            componentCount++;
+            outDegrees.add();
+            inDegrees.add();
+            degrees.add();
+        }
+        return id;
+    }
+
+    private int find(int id) {
+        while (parent[id] != id) {
+            parent[id] = parent[parent[id]];
+            id = parent[id];
+        }
+        return id;
+    }
+
+    private void union(int a, int b) {
+        a = find(a);
+        b = find(b);
+        if (a == b) {
+            return;
+        }
+        if (componentSize[a] < componentSize[b]) {
+            int swap = a;
+            a = b;
+            b = swap;
+        }
+        parent[b] = a;
+        componentSize[a] += componentSize[b];
+        componentCount--;
+    }
+
+    /**
+     * Number of connected components, ignoring edge direction.
+     */
+    public int componentCount() {
+        return componentCount;
+    }
+
+    /**
+     * An id for the component of a node, or -1 if it is not in the graph. Two nodes
+     * are connected exactly when their ids are equal; ids may change as edges are added.
+     */
+    public int componentOf(T tee) {
+        int id = index.indexOf(tee);
+        return id < 0 ? -1 : find(id);
+    }
+
+    public int componentSize(T tee) {
+        int id = index.indexOf(tee);
+        return id < 0 ? 0 : componentSize[find(id)];
     }
 
     public void addEdge(Edge<T> edge) {
         addEdge(edge.getFrom(), edge.getTo());
     }
 
+    /**
+     * Adds every edge in turn. To bulk load a graph that is then only read, a
+     * CompactGraph.Builder sized for the expected nodes and edges avoids hashing
+     * per edge altogether.
+     */
+    public void addEdges(Iterable<Edge<T>> edges) {
+        for (Edge<T> edge : edges) {
+            addEdge(edge.getFrom(), edge.getTo());
+        }
+    }
+
+    /**
+     * Changes whenever edges are added, so caches can tell they are stale.
+     */
+    int version() {
+        return version;
+    }
+
     public int size() {
         return nodes.size();
     }
@@ -61,7 +195,66 @@ public class AdjacencyList<T> implements Graph<T> {
     }
 
     public int neighbors(T tee) {
-        return doubleLinkedGraph.getValues(tee).size();
+        return degree(tee, Direction.UNDIRECTED);
+    }
+
+    public int outDegree(T tee) {
+        return degree(tee, Direction.OUT);
+    }
+
+    public int inDegree(T tee) {
+        return degree(tee, Direction.IN);
+    }
+
+    /**
+     * The degree of a node, or 0 if it is not in the graph, in constant time.
+     */
+    public int degree(T tee, Direction direction) {
+        int id = index.indexOf(tee);
+        return id < 0 ? 0 : buckets(direction).degree(id);
+    }
+
+    /**
+     * The k nodes with the most distinct neighbors, highest first.
+     */
+    public List<T> hubs(int k) {
+        return hubs(k, Direction.UNDIRECTED);
+    }
+
+    /**
+     * The k nodes of highest degree, highest first, ties in no particular order.
+     * Costs O(k) whatever the size of the graph.
+     */
+    public List<T> hubs(int k, Direction direction) {
+        DegreeBuckets buckets = buckets(direction);
+        int count = Math.min(k, buckets.size());
+        List<T> result = new ArrayList<T>(count);
+        for (int rank = 0; rank < count; rank++) {
+            result.add(index.get(buckets.node(rank)));
+        }
+        return result;
+    }
+
+    public int maxDegree(Direction direction) {
+        return buckets(direction).maxDegree();
+    }
+
+    /**
+     * How many nodes have each degree, indexed from 0 to maxDegree(direction).
+     */
+    public int[] degreeHistogram(Direction direction) {
+        return buckets(direction).histogram();
+    }
+
+    private DegreeBuckets buckets(Direction direction) {
+        switch (direction) {
+            case OUT:
+                return outDegrees;
+            case IN:
+                return inDegrees;
+            default:
+                return degrees;
+        }
     }
 
     public Iterable<T> nodes() {
@@ -90,6 +283,53 @@ public class AdjacencyList<T> implements Graph<T> {
         return iterable;
     }
 
+    public void forEachEdge(BiConsumer<? super T, ? super T> consumer) {
+        for (T from : nodes) {
+            for (T to : adjacentyList.getValues(from)) {
+                consumer.accept(from, to);
+            }
+        }
+    }
+
+    public void forEachNeighbor(T tee, Consumer<? super T> consumer) {
+        for (T neighbor : doubleLinkedGraph.getValues(tee)) {
+            consumer.accept(neighbor);
+        }
+    }
+
+    public EdgeCursor<T> edgeCursor() {
+        return new EdgeCursor<T>() {
+            Iterator<T> sources = nodes.iterator();
+            Iterator<T> targets = Collections.<T>emptySet().iterator();
+            T from, to;
+
+            public boolean next() {
+                while (!targets.hasNext()) {
+                    if (!sources.hasNext()) {
+                        return false;
+                    }
+                    from = sources.next();
+                    targets = adjacentyList.getValues(from).iterator();
+                }
+                to = targets.next();
+                return true;
+            }
+
+            public T from() {
+                return from;
+            }
+
+            public T to() {
+                return to;
+            }
+
+            public void reset() {
+                sources = nodes.iterator();
+                targets = Collections.<T>emptySet().iterator();
+            }
+        };
+    }
+
     public boolean hasEdge(T from, T to) {
         return adjacentyList.getValues(from).contains(to);
     }
@@ -98,52 +338,119 @@ public class AdjacencyList<T> implements Graph<T> {
         return hasEdge(edge.getFrom(), edge.getTo());
     }
 
+    /**
+     * One graph per connected component, built only when it is first read.
+     * Components already read stay valid; reading one for the first time after
+     * edges were added fails with ConcurrentModificationException.
+     */
     public List<Graph<T>> subgraphs() {
-        Set<T> universe = Sets.newHashSet(nodes);
-        List<Graph<T>> graphs = new ArrayList<Graph<T>>();
-
-        while (universe.size() != 0) {
-            T startingPoint = universe.iterator().next();
-            AdjacencyList<T> graph = explore(startingPoint, new NodeFilter<T>() {
-                public boolean accept(Edge<T> edge, int currentDepth, Graph<T> currentGraph) {
-                    return true;
-                }
-            });
-            graphs.add(graph);
-            universe.removeAll(graph.nodes);
+        final int[] label = new int[index.size()];
+        Arrays.fill(label, -1);
+        int count = 0;
+        for (T node : nodes) {
+            int root = find(index.indexOf(node));
+            if (label[root] < 0) {
+                label[root] = count++;
+            }
         }
+        final int components = count;
+        final int expectedVersion = version;
 
-        return graphs;
-    }
+        return new AbstractList<Graph<T>>() {
+            private int[] offsets, members;
+            private final List<Graph<T>> graphs = new ArrayList<Graph<T>>(Collections.<Graph<T>>nCopies(components, null));
+
+            public Graph<T> get(int i) {
+                if (graphs.get(i) == null) {
+                    if (version != expectedVersion) {
+                        throw new ConcurrentModificationException();
+                    }
+                    if (members == null) {
+                        group();
+                    }
+                    AdjacencyList<T> graph = new AdjacencyList<T>();
+                    for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                        T node = index.get(members[k]);
+                        for (T child : adjacentyList.getValues(node)) {
+                            graph.addEdge(node, child);
+                        }
+                    }
+                    graphs.set(i, graph);
+                }
+                return graphs.get(i);
+            }
 
-    private void explore(AdjacencyList<T> graph, Edge<T> edge, Set<Edge<T>> visitedEdges, int currentDepth, NodeFilter<T> filter) {
-        T startingPoint = edge.getTo();
-        for (T neighbor : doubleLinkedGraph.getValues(startingPoint)) {
-            Edge<T> forth = new Edge<T>(startingPoint, neighbor);
-            Edge<T> back = new Edge<T>(neighbor, startingPoint);
-            if (!filter.accept(forth, currentDepth + 1, this)) {
-                continue;
+            public int size() {
+                return components;
             }
-            if (visitedEdges.contains(forth) || visitedEdges.contains(back)) {
-                continue;
-            } else {
-                if (hasEdge(forth)) {
-                    graph.addEdge(forth);
+
+            private void group() {
+                offsets = new int[components + 1];
+                members = new int[label.length];
+                for (int id = 0; id < label.length; id++) {
+                    offsets[label[find(id)] + 1]++;
+                }
+                for (int c = 0; c < components; c++) {
+                    offsets[c + 1] += offsets[c];
                 }
-                if (hasEdge(back)) {
-                    graph.addEdge(back);
+                int[] fill = Arrays.copyOf(offsets, components);
+                for (int id = 0; id < label.length; id++) {
+                    members[fill[label[find(id)]]++] = id;
                 }
-                visitedEdges.add(forth);
-                visitedEdges.add(back);
-                explore(graph, forth, visitedEdges, currentDepth + 1, filter);
             }
-        }
+        };
     }
 
+    /**
+     * Breadth-first walk from a node, ignoring edge direction. Every pair of
+     * neighbors is offered to the filter once, from whichever end is reached
+     * first, with the depth its far end would get; accepted pairs bring their
+     * edges into the result and their far end into the walk.
+     */
     public AdjacencyList<T> explore(T from, NodeFilter<T> nodeFilter) {
-        Set<Edge<T>> visited = new HashSet<Edge<T>>();
         AdjacencyList<T> newGraph = new AdjacencyList<T>();
-        explore(newGraph, new Edge<T>(null, from), visited, 0, nodeFilter);
+        int start = index.indexOf(from);
+        if (start < 0) {
+            return newGraph;
+        }
+
+        BitSet seen = new BitSet();
+        BitSet expanded = new BitSet();
+        int[] queue = new int[16];
+        int[] depths = new int[16];
+        int head = 0, tail = 0;
+        queue[tail] = start;
+        depths[tail++] = 0;
+        seen.set(start);
+
+        while (head < tail) {
+            int current = queue[head];
+            int depth = depths[head++] + 1;
+            T node = index.get(current);
+            for (T neighbor : doubleLinkedGraph.getValues(node)) {
+                int id = index.indexOf(neighbor);
+                if (expanded.get(id) || !nodeFilter.accept(new Edge<T>(node, neighbor), depth, this)) {
+                    continue;
+                }
+                if (hasEdge(node, neighbor)) {
+                    newGraph.addEdge(node, neighbor);
+                }
+                if (hasEdge(neighbor, node)) {
+                    newGraph.addEdge(neighbor, node);
+                }
+                if (!seen.get(id)) {
+                    seen.set(id);
+                    if (tail == queue.length) {
+                        queue = Arrays.copyOf(queue, tail * 2);
+                        depths = Arrays.copyOf(depths, tail * 2);
+                    }
+                    queue[tail] = id;
+                    depths[tail++] = depth;
+                }
+            }
+            // a loop is offered while its node is expanded, so mark it afterwards
+            expanded.set(current);
+        }
         return newGraph;
     }
 
@@ -0,0 +1,145 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Shortest paths over the undirected view of any graph, searching from both
+ * ends at once and always growing the smaller frontier by a whole level, so on
+ * small-world graphs only about the square root of the nodes a one-sided search
+ * would reach are ever touched.
+ */
+public class BidirectionalSearch {
+    private BidirectionalSearch() {
+    }
+
+    /**
+     * One shortest path from one node to another, both included, ignoring edge
+     * direction; empty if there is none of at most maxHops edges.
+     */
+    public static <T> List<T> shortestPath(Graph<T> graph, T from, T to, int maxHops) {
+        if (graph.neighbors(from) == 0 || graph.neighbors(to) == 0) {
+            return Collections.emptyList();
+        }
+        if (from == null ? to == null : from.equals(to)) {
+            return Collections.singletonList(from);
+        }
+
+        Side<T> forward = new Side<T>(from);
+        Side<T> backward = new Side<T>(to);
+        while (forward.depth + backward.depth < maxHops && !forward.frontier.isEmpty() && !backward.frontier.isEmpty()) {
+            Side<T> grown = forward.frontier.size() <= backward.frontier.size() ? forward : backward;
+            Side<T> other = grown == forward ? backward : forward;
+            T[] meeting = grown.expand(graph, other, maxHops);
+            if (meeting != null) {
+                return grown == forward ? join(forward, backward, meeting[0], meeting[1]) : join(forward, backward, meeting[1], meeting[0]);
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Hops on the shortest path, or -1 if there is none of at most maxHops edges.
+     */
+    public static <T> int hopDistance(Graph<T> graph, T from, T to, int maxHops) {
+        return shortestPath(graph, from, to, maxHops).size() - 1;
+    }
+
+    /**
+     * The path through an edge from a node reached forward to one reached backward.
+     */
+    private static <T> List<T> join(Side<T> forward, Side<T> backward, T last, T first) {
+        List<T> path = new ArrayList<T>();
+        forward.walkBack(last, path);
+        Collections.reverse(path);
+        backward.walkBack(first, path);
+        return path;
+    }
+
+    private static class Side<T> {
+        final Map<T, T> parents = new HashMap<T, T>();
+        final Map<T, Integer> depths = new HashMap<T, Integer>();
+        List<T> frontier = new ArrayList<T>();
+        int depth = 0;
+
+        Side(T root) {
+            parents.put(root, null);
+            depths.put(root, 0);
+            frontier.add(root);
+        }
+
+        /**
+         * Adds a node and its parents up to the root; nodes may be null, so depths tell where to stop.
+         */
+        void walkBack(T node, List<T> path) {
+            path.add(node);
+            for (int d = depths.get(node); d > 0; d--) {
+                node = parents.get(node);
+                path.add(node);
+            }
+        }
+
+        /**
+         * Grows the frontier by one level. Returns the node pair whose edge closes the
+         * shortest path found in this level, this side's end first, or null.
+         */
+        @SuppressWarnings("unchecked")
+        T[] expand(Graph<T> graph, final Side<T> other, final int maxHops) {
+            final List<T> next = new ArrayList<T>();
+            final Object[] best = new Object[2];
+            final int[] bestLength = {Integer.MAX_VALUE};
+            // best may hold null nodes, so bestLength tells whether anything was found
+            for (final T node : frontier) {
+                graph.forEachNeighbor(node, new Consumer<T>() {
+                    public void accept(T neighbor) {
+                        Integer otherDepth = other.depths.get(neighbor);
+                        if (otherDepth != null) {
+                            int length = depth + 1 + otherDepth;
+                            if (length < bestLength[0] && length <= maxHops) {
+                                bestLength[0] = length;
+                                best[0] = node;
+                                best[1] = neighbor;
+                            }
+                        }
+                        if (!parents.containsKey(neighbor)) {
+                            parents.put(neighbor, node);
+                            depths.put(neighbor, depth + 1);
+                            next.add(neighbor);
+                        }
+                    }
+                });
+            }
+            frontier = next;
+            depth++;
+            return bestLength[0] == Integer.MAX_VALUE ? null : (T[]) best;
+        }
+    }
+}
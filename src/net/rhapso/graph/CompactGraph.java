@@ -0,0 +1,187 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph;
+
+import java.util.Arrays;
+
+/**
+ * An immutable graph in compressed sparse row form. Nodes are interned to
+ * dense int ids; out-edges and the undirected neighbor view are each a pair
+ * of int arrays, offsets and sorted targets, so a node costs a few words and
+ * an edge about twelve bytes. children and neighbors are O(degree) and
+ * hasEdge a binary search over the out-edges of one node.
+ */
+public class CompactGraph<T> extends IndexedGraph<T> {
+    private final NodeIndex<T> index;
+    private final int[] outOffsets, outTargets;
+    private final int[] neighborOffsets, neighborTargets;
+
+    private CompactGraph(NodeIndex<T> index, int[] from, int[] to, int edges) {
+        this.index = index;
+        int[][] out = rows(index.size(), from, to, edges, false);
+        outOffsets = out[0];
+        outTargets = out[1];
+        int[][] neighbors = rows(index.size(), from, to, edges, true);
+        neighborOffsets = neighbors[0];
+        neighborTargets = neighbors[1];
+    }
+
+    public static <T> CompactGraph<T> of(Graph<T> graph) {
+        return of(graph.edges(), graph.size());
+    }
+
+    public static <T> CompactGraph<T> of(Iterable<Edge<T>> edges) {
+        return of(edges, 16);
+    }
+
+    private static <T> CompactGraph<T> of(Iterable<Edge<T>> edges, int expectedNodes) {
+        return new Builder<T>(expectedNodes).addEdges(edges).build();
+    }
+
+    /**
+     * Collects edges, in any order and with duplicates, for a CompactGraph.
+     */
+    public static class Builder<T> {
+        private final NodeIndex<T> index;
+        private int[] from, to;
+        private int edges;
+
+        public Builder() {
+            this(16);
+        }
+
+        public Builder(int expectedNodes) {
+            this(expectedNodes, expectedNodes);
+        }
+
+        /**
+         * Sizes the node index and the edge arrays up front.
+         */
+        public Builder(int expectedNodes, int expectedEdges) {
+            index = new NodeIndex<T>(expectedNodes);
+            from = new int[Math.max(16, expectedEdges)];
+            to = new int[from.length];
+        }
+
+        public Builder<T> addEdge(T from, T to) {
+            if (edges == this.from.length) {
+                this.from = Arrays.copyOf(this.from, edges * 2);
+                this.to = Arrays.copyOf(this.to, edges * 2);
+            }
+            this.from[edges] = index.intern(from);
+            this.to[edges] = index.intern(to);
+            edges++;
+            return this;
+        }
+
+        public Builder<T> addEdges(Iterable<Edge<T>> edges) {
+            for (Edge<T> edge : edges) {
+                addEdge(edge.getFrom(), edge.getTo());
+            }
+            return this;
+        }
+
+        public CompactGraph<T> build() {
+            return new CompactGraph<T>(index, from, to, edges);
+        }
+    }
+
+    /**
+     * Offsets and targets, each row sorted and free of duplicates. The undirected
+     * view holds every edge in both directions and a loop once.
+     */
+    private static int[][] rows(int nodes, int[] from, int[] to, int edges, boolean undirected) {
+        int[] offsets = new int[nodes + 1];
+        for (int e = 0; e < edges; e++) {
+            offsets[from[e] + 1]++;
+            if (undirected && from[e] != to[e]) {
+                offsets[to[e] + 1]++;
+            }
+        }
+        for (int i = 0; i < nodes; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+
+        int[] targets = new int[offsets[nodes]];
+        int[] fill = Arrays.copyOf(offsets, nodes);
+        for (int e = 0; e < edges; e++) {
+            targets[fill[from[e]]++] = to[e];
+            if (undirected && from[e] != to[e]) {
+                targets[fill[to[e]]++] = from[e];
+            }
+        }
+
+        int write = 0;
+        for (int i = 0; i < nodes; i++) {
+            int start = offsets[i], end = offsets[i + 1];
+            offsets[i] = write;
+            Arrays.sort(targets, start, end);
+            for (int k = start; k < end; k++) {
+                if (k == start || targets[k] != targets[k - 1]) {
+                    targets[write++] = targets[k];
+                }
+            }
+        }
+        offsets[nodes] = write;
+        return new int[][]{offsets, write == targets.length ? targets : Arrays.copyOf(targets, write)};
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public long edgeCount() {
+        return outTargets.length;
+    }
+
+    public int indexOf(T tee) {
+        return index.indexOf(tee);
+    }
+
+    public T node(int id) {
+        return index.get(id);
+    }
+
+    public int childCount(int id) {
+        return outOffsets[id + 1] - outOffsets[id];
+    }
+
+    public int child(int id, int n) {
+        return outTargets[outOffsets[id] + n];
+    }
+
+    public int neighborCount(int id) {
+        return neighborOffsets[id + 1] - neighborOffsets[id];
+    }
+
+    public int neighbor(int id, int n) {
+        return neighborTargets[neighborOffsets[id] + n];
+    }
+
+    @Override
+    public boolean hasEdgeById(int from, int to) {
+        return Arrays.binarySearch(outTargets, outOffsets[from], outOffsets[from + 1], to) >= 0;
+    }
+}
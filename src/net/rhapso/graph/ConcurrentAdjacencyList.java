@@ -0,0 +1,241 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * An AdjacencyList that any number of threads may add edges to and read at
+ * the same time. Every node owns concurrent sets of children and neighbors,
+ * so writers only contend when they touch the same node. An edge is visible
+ * to every reader once addEdge returns; iterations are weakly consistent and
+ * see some, but not necessarily all, of the edges added while they run.
+ * Unlike AdjacencyList it has no null node: the maps underneath refuse null,
+ * so addEdge throws NullPointerException for one.
+ */
+public class ConcurrentAdjacencyList<T> implements Graph<T> {
+    private final ConcurrentMap<T, Set<T>> children = new ConcurrentHashMap<T, Set<T>>();
+    private final ConcurrentMap<T, Set<T>> neighbors = new ConcurrentHashMap<T, Set<T>>();
+
+    public void addEdge(T from, T to) {
+        if (from == null || to == null) {
+            throw new NullPointerException("ConcurrentAdjacencyList does not accept null nodes");
+        }
+        // both nodes exist before either is reachable from the other
+        Set<T> fromNeighbors = setOf(neighbors, from);
+        Set<T> toNeighbors = setOf(neighbors, to);
+        setOf(children, from).add(to);
+        fromNeighbors.add(to);
+        toNeighbors.add(from);
+    }
+
+    public void addEdge(Edge<T> edge) {
+        addEdge(edge.getFrom(), edge.getTo());
+    }
+
+    private static <T> Set<T> setOf(ConcurrentMap<T, Set<T>> map, T tee) {
+        Set<T> set = map.get(tee);
+        if (set == null) {
+            Set<T> created = Collections.newSetFromMap(new ConcurrentHashMap<T, Boolean>(4));
+            set = map.putIfAbsent(tee, created);
+            if (set == null) {
+                set = created;
+            }
+        }
+        return set;
+    }
+
+    public int size() {
+        return neighbors.size();
+    }
+
+    public Iterable<T> children(T tee) {
+        Set<T> set = children.get(tee);
+        return set == null ? Collections.<T>emptySet() : Collections.unmodifiableSet(set);
+    }
+
+    public int neighbors(T tee) {
+        Set<T> set = neighbors.get(tee);
+        return set == null ? 0 : set.size();
+    }
+
+    public Iterable<T> nodes() {
+        return Collections.unmodifiableSet(neighbors.keySet());
+    }
+
+    public Iterable<Edge<T>> edges() {
+        return new Iterable<Edge<T>>() {
+            public Iterator<Edge<T>> iterator() {
+                return new Iterator<Edge<T>>() {
+                    Iterator<Map.Entry<T, Set<T>>> entries = children.entrySet().iterator();
+                    T from;
+                    Iterator<T> targets = Collections.<T>emptySet().iterator();
+
+                    public boolean hasNext() {
+                        while (!targets.hasNext() && entries.hasNext()) {
+                            Map.Entry<T, Set<T>> entry = entries.next();
+                            from = entry.getKey();
+                            targets = entry.getValue().iterator();
+                        }
+                        return targets.hasNext();
+                    }
+
+                    public Edge<T> next() {
+                        hasNext();
+                        return new Edge<T>(from, targets.next());
+                    }
+
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+
+    public void forEachEdge(BiConsumer<? super T, ? super T> consumer) {
+        for (Map.Entry<T, Set<T>> entry : children.entrySet()) {
+            T from = entry.getKey();
+            for (T to : entry.getValue()) {
+                consumer.accept(from, to);
+            }
+        }
+    }
+
+    public void forEachNeighbor(T tee, Consumer<? super T> consumer) {
+        Set<T> set = neighbors.get(tee);
+        if (set != null) {
+            for (T neighbor : set) {
+                consumer.accept(neighbor);
+            }
+        }
+    }
+
+    public EdgeCursor<T> edgeCursor() {
+        return new EdgeCursor<T>() {
+            Iterator<Map.Entry<T, Set<T>>> entries = children.entrySet().iterator();
+            Iterator<T> targets = Collections.<T>emptySet().iterator();
+            T from, to;
+
+            public boolean next() {
+                while (!targets.hasNext()) {
+                    if (!entries.hasNext()) {
+                        return false;
+                    }
+                    Map.Entry<T, Set<T>> entry = entries.next();
+                    from = entry.getKey();
+                    targets = entry.getValue().iterator();
+                }
+                to = targets.next();
+                return true;
+            }
+
+            public T from() {
+                return from;
+            }
+
+            public T to() {
+                return to;
+            }
+
+            public void reset() {
+                entries = children.entrySet().iterator();
+                targets = Collections.<T>emptySet().iterator();
+            }
+        };
+    }
+
+    public boolean hasEdge(T from, T to) {
+        Set<T> set = children.get(from);
+        return set != null && set.contains(to);
+    }
+
+    /**
+     * The components of a copy of the graph taken edge by edge, which may or may
+     * not include edges added concurrently.
+     */
+    public List<Graph<T>> subgraphs() {
+        AdjacencyList<T> copy = new AdjacencyList<T>(size());
+        copy.addEdges(edges());
+        return copy.subgraphs();
+    }
+
+    /**
+     * Same walk as {@link AdjacencyList#explore}, over whatever edges are visible as it goes.
+     */
+    public AdjacencyList<T> explore(T from, NodeFilter<T> nodeFilter) {
+        AdjacencyList<T> newGraph = new AdjacencyList<T>();
+        if (!neighbors.containsKey(from)) {
+            return newGraph;
+        }
+
+        Map<T, Integer> depths = new HashMap<T, Integer>();
+        Set<T> expanded = new HashSet<T>();
+        ArrayDeque<T> queue = new ArrayDeque<T>();
+        depths.put(from, 0);
+        queue.add(from);
+
+        while (!queue.isEmpty()) {
+            T node = queue.poll();
+            int depth = depths.get(node) + 1;
+            for (T neighbor : neighbors.get(node)) {
+                if (expanded.contains(neighbor) || !nodeFilter.accept(new Edge<T>(node, neighbor), depth, this)) {
+                    continue;
+                }
+                if (hasEdge(node, neighbor)) {
+                    newGraph.addEdge(node, neighbor);
+                }
+                if (hasEdge(neighbor, node)) {
+                    newGraph.addEdge(neighbor, node);
+                }
+                if (!depths.containsKey(neighbor)) {
+                    depths.put(neighbor, depth);
+                    queue.add(neighbor);
+                }
+            }
+            expanded.add(node);
+        }
+        return newGraph;
+    }
+
+    public Graph<T> vicinity(T node, final int degrees) {
+        return explore(node, new NodeFilter<T>() {
+            public boolean accept(Edge<T> edge, int currentDepth, Graph<T> currentGraph) {
+                return degrees >= currentDepth;
+            }
+        });
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph;
+
+import java.util.Arrays;
+
+/**
+ * Degrees of nodes numbered 0 to size() - 1, with the ids kept sorted by
+ * descending degree. Nodes of equal degree form a contiguous bucket, so raising
+ * a degree by one only swaps a node with the head of its bucket and the
+ * highest-degree nodes are always the first ranks.
+ */
+class DegreeBuckets {
+    private int[] degree, sorted, position;
+    // first[d] is the rank where the nodes of degree d start; 0 above the maximum
+    private int[] first = new int[16];
+    private int size, maxDegree;
+
+    DegreeBuckets(int expectedNodes) {
+        int capacity = Math.max(16, expectedNodes);
+        degree = new int[capacity];
+        sorted = new int[capacity];
+        position = new int[capacity];
+    }
+
+    /**
+     * Registers the next node id, with degree 0.
+     */
+    public int add() {
+        if (size == degree.length) {
+            degree = Arrays.copyOf(degree, size * 2);
+            sorted = Arrays.copyOf(sorted, size * 2);
+            position = Arrays.copyOf(position, size * 2);
+        }
+        int id = size++;
+        degree[id] = 0;
+        sorted[id] = id;
+        position[id] = id;
+        return id;
+    }
+
+    public void increment(int id) {
+        int d = degree[id];
+        int head = first[d];
+        int other = sorted[head];
+        sorted[head] = id;
+        sorted[position[id]] = other;
+        position[other] = position[id];
+        position[id] = head;
+        first[d]++;
+
+        degree[id] = d + 1;
+        if (d + 1 > maxDegree) {
+            maxDegree = d + 1;
+            if (maxDegree + 1 >= first.length) {
+                first = Arrays.copyOf(first, first.length * 2);
+            }
+        }
+    }
+
+    public int degree(int id) {
+        return degree[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int maxDegree() {
+        return maxDegree;
+    }
+
+    /**
+     * The node at a rank, 0 being a node of the highest degree.
+     */
+    public int node(int rank) {
+        return sorted[rank];
+    }
+
+    /**
+     * How many nodes have each degree, from 0 to maxDegree().
+     */
+    public int[] histogram() {
+        int[] counts = new int[maxDegree + 1];
+        for (int d = 0; d <= maxDegree; d++) {
+            int end = d == 0 ? size : first[d - 1];
+            counts[d] = end - first[d];
+        }
+        return counts;
+    }
+}
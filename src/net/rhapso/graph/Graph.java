@@ -24,7 +24,12 @@
 
 package net.rhapso.graph;
 
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public interface Graph<T> {
     public int size();
@@ -36,6 +41,87 @@ public interface Graph<T> {
     public int neighbors(T tee);
     public Graph<T> explore(T from, NodeFilter<T> nodeFilter);
 
+    /**
+     * Hands every edge to the consumer as a from, to pair. Implementations override
+     * it to do so without creating Edges.
+     */
+    public default void forEachEdge(BiConsumer<? super T, ? super T> consumer) {
+        for (Edge<T> edge : edges()) {
+            consumer.accept(edge.getFrom(), edge.getTo());
+        }
+    }
+
+    /**
+     * Hands every node linked to tee, in either direction, to the consumer, once each.
+     * By default the parents are found by scanning every edge.
+     */
+    public default void forEachNeighbor(T tee, Consumer<? super T> consumer) {
+        Set<T> seen = new HashSet<T>();
+        for (T child : children(tee)) {
+            if (seen.add(child)) {
+                consumer.accept(child);
+            }
+        }
+        for (Edge<T> edge : edges()) {
+            if (edge.getTo().equals(tee) && seen.add(edge.getFrom())) {
+                consumer.accept(edge.getFrom());
+            }
+        }
+    }
+
+    /**
+     * A cursor over edges(); implementations override it to avoid creating Edges.
+     */
+    public default EdgeCursor<T> edgeCursor() {
+        return new EdgeCursor<T>() {
+            Iterator<Edge<T>> iterator = edges().iterator();
+            Edge<T> current;
+
+            public boolean next() {
+                current = iterator.hasNext() ? iterator.next() : null;
+                return current != null;
+            }
+
+            public T from() {
+                return current.getFrom();
+            }
+
+            public T to() {
+                return current.getTo();
+            }
+
+            public void reset() {
+                iterator = edges().iterator();
+                current = null;
+            }
+        };
+    }
+
+    /**
+     * Edges on a shortest path between two nodes, ignoring direction, or -1 if they are not connected.
+     */
+    public default int hopDistance(T from, T to) {
+        return BidirectionalSearch.hopDistance(this, from, to, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Same as {@link #hopDistance(Object, Object)}, giving up on paths longer than maxHops.
+     */
+    public default int hopDistance(T from, T to, int maxHops) {
+        return BidirectionalSearch.hopDistance(this, from, to, maxHops);
+    }
+
+    /**
+     * The nodes of one shortest path, ends included, or an empty list.
+     */
+    public default List<T> shortestPath(T from, T to) {
+        return BidirectionalSearch.shortestPath(this, from, to, Integer.MAX_VALUE);
+    }
+
+    public default List<T> shortestPath(T from, T to, int maxHops) {
+        return BidirectionalSearch.shortestPath(this, from, to, maxHops);
+    }
+
     static interface NodeFilter<T> {
         public boolean accept(Edge<T> edge, int currentDepth, Graph<T> currentGraph);
     }
@@ -0,0 +1,320 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * A graph whose nodes are numbered 0 to size() - 1 and whose out-edges and
+ * undirected neighbors are sorted rows of ids. Subclasses only decide where
+ * the rows live; everything of Graph is built on the id accessors here.
+ */
+public abstract class IndexedGraph<T> implements Graph<T> {
+    /**
+     * The id of a node, or -1 if it is not in the graph.
+     */
+    public abstract int indexOf(T tee);
+
+    public abstract T node(int id);
+
+    public abstract long edgeCount();
+
+    public abstract int childCount(int id);
+
+    public abstract int child(int id, int n);
+
+    public abstract int neighborCount(int id);
+
+    public abstract int neighbor(int id, int n);
+
+    /**
+     * hasEdge over ids; named apart so that a graph of Integers never picks the wrong overload.
+     * A binary search over the sorted children of from.
+     */
+    public boolean hasEdgeById(int from, int to) {
+        int low = 0, high = childCount(from) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int child = child(from, middle);
+            if (child < to) {
+                low = middle + 1;
+            } else if (child > to) {
+                high = middle - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Iterable<T> children(final T tee) {
+        final int id = indexOf(tee);
+        if (id < 0) {
+            return Collections.emptyList();
+        }
+        return new Iterable<T>() {
+            public Iterator<T> iterator() {
+                return new Iterator<T>() {
+                    int n = 0;
+                    final int count = childCount(id);
+
+                    public boolean hasNext() {
+                        return n < count;
+                    }
+
+                    public T next() {
+                        if (n >= count) {
+                            throw new NoSuchElementException();
+                        }
+                        return node(child(id, n++));
+                    }
+
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+
+    public int neighbors(T tee) {
+        int id = indexOf(tee);
+        return id < 0 ? 0 : neighborCount(id);
+    }
+
+    public Iterable<T> nodes() {
+        return new Iterable<T>() {
+            public Iterator<T> iterator() {
+                return new Iterator<T>() {
+                    int id = 0;
+
+                    public boolean hasNext() {
+                        return id < size();
+                    }
+
+                    public T next() {
+                        if (id >= size()) {
+                            throw new NoSuchElementException();
+                        }
+                        return node(id++);
+                    }
+
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+
+    public Iterable<Edge<T>> edges() {
+        return new Iterable<Edge<T>>() {
+            public Iterator<Edge<T>> iterator() {
+                return new Iterator<Edge<T>>() {
+                    int from = 0, n = 0;
+
+                    public boolean hasNext() {
+                        while (from < size() && n >= childCount(from)) {
+                            from++;
+                            n = 0;
+                        }
+                        return from < size();
+                    }
+
+                    public Edge<T> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        return new Edge<T>(node(from), node(child(from, n++)));
+                    }
+
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+
+    public void forEachEdge(BiConsumer<? super T, ? super T> consumer) {
+        for (int from = 0; from < size(); from++) {
+            T source = node(from);
+            for (int n = 0; n < childCount(from); n++) {
+                consumer.accept(source, node(child(from, n)));
+            }
+        }
+    }
+
+    public void forEachNeighbor(T tee, Consumer<? super T> consumer) {
+        int id = indexOf(tee);
+        if (id >= 0) {
+            for (int n = 0; n < neighborCount(id); n++) {
+                consumer.accept(node(neighbor(id, n)));
+            }
+        }
+    }
+
+    public EdgeCursor<T> edgeCursor() {
+        return new EdgeCursor<T>() {
+            int from = 0, n = -1;
+
+            public boolean next() {
+                n++;
+                while (from < size() && n >= childCount(from)) {
+                    from++;
+                    n = 0;
+                }
+                return from < size();
+            }
+
+            public T from() {
+                return node(from);
+            }
+
+            public T to() {
+                return node(child(from, n));
+            }
+
+            public void reset() {
+                from = 0;
+                n = -1;
+            }
+        };
+    }
+
+    public boolean hasEdge(T from, T to) {
+        int fromId = indexOf(from);
+        int toId = indexOf(to);
+        return fromId >= 0 && toId >= 0 && hasEdgeById(fromId, toId);
+    }
+
+    /**
+     * Connected components, ignoring edge direction, in the order of their lowest node id.
+     */
+    public List<Graph<T>> subgraphs() {
+        int size = size();
+        int[] component = new int[size];
+        Arrays.fill(component, -1);
+        int[] queue = new int[size];
+        List<CompactGraph.Builder<T>> builders = new ArrayList<CompactGraph.Builder<T>>();
+
+        for (int source = 0; source < size; source++) {
+            if (component[source] >= 0) {
+                continue;
+            }
+            int label = builders.size();
+            builders.add(new CompactGraph.Builder<T>());
+            component[source] = label;
+            int head = 0, tail = 0;
+            queue[tail++] = source;
+            while (head < tail) {
+                int u = queue[head++];
+                for (int n = 0; n < neighborCount(u); n++) {
+                    int v = neighbor(u, n);
+                    if (component[v] < 0) {
+                        component[v] = label;
+                        queue[tail++] = v;
+                    }
+                }
+            }
+        }
+
+        for (int u = 0; u < size; u++) {
+            for (int n = 0; n < childCount(u); n++) {
+                builders.get(component[u]).addEdge(node(u), node(child(u, n)));
+            }
+        }
+
+        List<Graph<T>> graphs = new ArrayList<Graph<T>>(builders.size());
+        for (CompactGraph.Builder<T> builder : builders) {
+            graphs.add(builder.build());
+        }
+        return graphs;
+    }
+
+    /**
+     * Breadth-first walk from a node, ignoring edge direction, like AdjacencyList:
+     * each node is expanded once and offers the filter every pair to a node not yet
+     * expanded, so a pair is offered at most once, at the depth of its first end plus
+     * one. Accepted pairs bring their edges into the result and their far end into
+     * the walk. Only the visited part of the graph is ever touched.
+     */
+    public CompactGraph<T> explore(T from, NodeFilter<T> filter) {
+        CompactGraph.Builder<T> result = new CompactGraph.Builder<T>();
+        int start = indexOf(from);
+        if (start < 0) {
+            return result.build();
+        }
+
+        LongIntMap depth = new LongIntMap();
+        LongIntMap expanded = new LongIntMap();
+        int[] queue = new int[16];
+        int head = 0, tail = 0;
+        depth.put(start, 0);
+        queue[tail++] = start;
+
+        while (head < tail) {
+            int u = queue[head++];
+            int next = depth.get(u) + 1;
+            for (int n = 0; n < neighborCount(u); n++) {
+                int v = neighbor(u, n);
+                if (expanded.get(v) >= 0 || !filter.accept(new Edge<T>(node(u), node(v)), next, this)) {
+                    continue;
+                }
+                if (hasEdgeById(u, v)) {
+                    result.addEdge(node(u), node(v));
+                }
+                if (u != v && hasEdgeById(v, u)) {
+                    result.addEdge(node(v), node(u));
+                }
+                if (depth.get(v) < 0) {
+                    depth.put(v, next);
+                    if (tail == queue.length) {
+                        queue = Arrays.copyOf(queue, tail * 2);
+                    }
+                    queue[tail++] = v;
+                }
+            }
+            // a loop is offered while its node is expanded, so mark it afterwards
+            expanded.put(u, 1);
+        }
+        return result.build();
+    }
+
+    public CompactGraph<T> vicinity(T node, final int degrees) {
+        return explore(node, new NodeFilter<T>() {
+            public boolean accept(Edge<T> edge, int currentDepth, Graph<T> currentGraph) {
+                return degrees >= currentDepth;
+            }
+        });
+    }
+}
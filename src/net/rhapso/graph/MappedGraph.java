@@ -0,0 +1,277 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * A read-only graph served straight from a memory-mapped file. Opening it only
+ * maps the file; the CSR rows, the node dictionary and a hash table from encoded
+ * node to id are all read in place, so start-up costs nothing per node and every
+ * process mapping the same file shares one copy in the page cache.
+ *
+ * The file is a header (magic, version, node, edge, neighbor and slot counts,
+ * dictionary size) followed by the out-edge offsets and targets, the neighbor
+ * offsets and targets, the hash slots, the dictionary offsets and the encoded
+ * nodes, all big-endian. Each section is mapped on its own and a single mapping
+ * is limited to 2GB, so a graph holds at most MAX_SECTION_INTS out-edges, and as
+ * many neighbor entries, with 2GB of encoded nodes; write rejects anything larger.
+ */
+public class MappedGraph<T> extends IndexedGraph<T> {
+    private static final int MAGIC = 0x52475246;
+    private static final int VERSION = 1;
+    private static final int HEADER = 32;
+    public static final int MAX_SECTION_INTS = Integer.MAX_VALUE / 4;
+
+    private final NodeCodec<T> codec;
+    private final int size, edgeCount;
+    private final IntBuffer outOffsets, outTargets;
+    private final IntBuffer neighborOffsets, neighborTargets;
+    private final IntBuffer slots, idOffsets;
+    private final ByteBuffer ids;
+
+    private MappedGraph(NodeCodec<T> codec, FileChannel channel, int size, int edgeCount, int neighborCount, int slotCount, long idBytes) throws IOException {
+        this.codec = codec;
+        this.size = size;
+        this.edgeCount = edgeCount;
+        long position = HEADER;
+        outOffsets = ints(channel, position, size + 1);
+        position += 4L * (size + 1);
+        outTargets = ints(channel, position, edgeCount);
+        position += 4L * edgeCount;
+        neighborOffsets = ints(channel, position, size + 1);
+        position += 4L * (size + 1);
+        neighborTargets = ints(channel, position, neighborCount);
+        position += 4L * neighborCount;
+        slots = ints(channel, position, slotCount);
+        position += 4L * slotCount;
+        idOffsets = ints(channel, position, size + 1);
+        position += 4L * (size + 1);
+        ids = channel.map(FileChannel.MapMode.READ_ONLY, position, idBytes);
+    }
+
+    private static IntBuffer ints(FileChannel channel, long position, int count) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, 4L * count).asIntBuffer();
+    }
+
+    private static void checkSection(String name, long count) {
+        if (count > MAX_SECTION_INTS) {
+            throw new IllegalArgumentException(name + " exceed the " + MAX_SECTION_INTS + " ints a 2GB mapping holds: " + count);
+        }
+    }
+
+    public static <T> MappedGraph<T> open(File file, NodeCodec<T> codec) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            if (channel.size() < HEADER) {
+                throw new IOException("Not a graph file: " + file);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Not a graph file: " + file);
+            }
+            int size = header.getInt(8);
+            int edgeCount = header.getInt(12);
+            int neighborCount = header.getInt(16);
+            int slotCount = header.getInt(20);
+            long idBytes = header.getLong(24);
+            long expected = HEADER + 4L * (3L * (size + 1) + edgeCount + neighborCount + slotCount) + idBytes;
+            if (size < 0 || edgeCount < 0 || neighborCount < 0 || slotCount < 0 || idBytes < 0 || channel.size() != expected) {
+                throw new IOException("Truncated graph file: " + file);
+            }
+            if (Math.max(Math.max(size + 1, slotCount), Math.max(edgeCount, neighborCount)) > MAX_SECTION_INTS) {
+                throw new IOException("Graph file sections exceed 2GB: " + file);
+            }
+            return new MappedGraph<T>(codec, channel, size, edgeCount, neighborCount, slotCount, idBytes);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * Writes any graph in the format MappedGraph opens. Duplicate edges are dropped.
+     * Throws IllegalArgumentException if a section would not fit a 2GB mapping.
+     */
+    public static <T> void write(Graph<T> graph, NodeCodec<T> codec, File file) throws IOException {
+        IndexedGraph<T> indexed = graph instanceof IndexedGraph ? (IndexedGraph<T>) graph : CompactGraph.of(graph);
+        int size = indexed.size();
+        checkSection("Nodes", size + 1L);
+        checkSection("Edges", indexed.edgeCount());
+
+        byte[][] encoded = new byte[size][];
+        long idBytes = 0;
+        for (int id = 0; id < size; id++) {
+            encoded[id] = codec.encode(indexed.node(id));
+            idBytes += encoded[id].length;
+        }
+        if (idBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Encoded nodes exceed 2GB");
+        }
+
+        long slotCount = Long.highestOneBit(Math.max(8, size * 2L - 1)) << 1;
+        checkSection("Hash slots", slotCount);
+        int[] slots = new int[(int) slotCount];
+        Arrays.fill(slots, -1);
+        for (int id = 0; id < size; id++) {
+            int slot = hash(encoded[id]) & (slots.length - 1);
+            while (slots[slot] >= 0) {
+                slot = (slot + 1) & (slots.length - 1);
+            }
+            slots[slot] = id;
+        }
+
+        long neighbors = 0;
+        for (int id = 0; id < size; id++) {
+            neighbors += indexed.neighborCount(id);
+        }
+        checkSection("Neighbor entries", neighbors);
+        int neighborCount = (int) neighbors;
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(size);
+            out.writeInt((int) indexed.edgeCount());
+            out.writeInt(neighborCount);
+            out.writeInt(slots.length);
+            out.writeLong(idBytes);
+
+            int offset = 0;
+            out.writeInt(offset);
+            for (int id = 0; id < size; id++) {
+                offset += indexed.childCount(id);
+                out.writeInt(offset);
+            }
+            for (int id = 0; id < size; id++) {
+                for (int n = 0; n < indexed.childCount(id); n++) {
+                    out.writeInt(indexed.child(id, n));
+                }
+            }
+            offset = 0;
+            out.writeInt(offset);
+            for (int id = 0; id < size; id++) {
+                offset += indexed.neighborCount(id);
+                out.writeInt(offset);
+            }
+            for (int id = 0; id < size; id++) {
+                for (int n = 0; n < indexed.neighborCount(id); n++) {
+                    out.writeInt(indexed.neighbor(id, n));
+                }
+            }
+            for (int slot : slots) {
+                out.writeInt(slot);
+            }
+            offset = 0;
+            out.writeInt(offset);
+            for (int id = 0; id < size; id++) {
+                offset += encoded[id].length;
+                out.writeInt(offset);
+            }
+            for (int id = 0; id < size; id++) {
+                out.write(encoded[id]);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private static int hash(byte[] bytes) {
+        int h = Arrays.hashCode(bytes);
+        return h ^ (h >>> 16);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Probes the mapped hash table, comparing encoded bytes; nothing is decoded.
+     */
+    public int indexOf(T tee) {
+        if (tee == null) {
+            return -1;
+        }
+        byte[] key = codec.encode(tee);
+        int mask = slots.capacity() - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int id = slots.get(slot);
+            if (id < 0) {
+                return -1;
+            }
+            if (matches(id, key)) {
+                return id;
+            }
+        }
+    }
+
+    private boolean matches(int id, byte[] key) {
+        int offset = idOffsets.get(id);
+        if (idOffsets.get(id + 1) - offset != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (ids.get(offset + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public T node(int id) {
+        int offset = idOffsets.get(id);
+        return codec.decode(ids, offset, idOffsets.get(id + 1) - offset);
+    }
+
+    public int childCount(int id) {
+        return outOffsets.get(id + 1) - outOffsets.get(id);
+    }
+
+    public int child(int id, int n) {
+        return outTargets.get(outOffsets.get(id) + n);
+    }
+
+    public int neighborCount(int id) {
+        return neighborOffsets.get(id + 1) - neighborOffsets.get(id);
+    }
+
+    public int neighbor(int id, int n) {
+        return neighborTargets.get(neighborOffsets.get(id) + n);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class NodeCodecs {
+    private static final NodeCodec<String> STRINGS = new NodeCodec<String>() {
+        public byte[] encode(String tee) {
+            return tee.getBytes(StandardCharsets.UTF_8);
+        }
+
+        public String decode(ByteBuffer buffer, int offset, int length) {
+            if (buffer.hasArray()) {
+                return new String(buffer.array(), buffer.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+            }
+            byte[] bytes = new byte[length];
+            ByteBuffer slice = buffer.duplicate();
+            slice.position(offset);
+            slice.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    private static final NodeCodec<Integer> INTEGERS = new NodeCodec<Integer>() {
+        public byte[] encode(Integer tee) {
+            return ByteBuffer.allocate(4).putInt(tee).array();
+        }
+
+        public Integer decode(ByteBuffer buffer, int offset, int length) {
+            return buffer.getInt(offset);
+        }
+    };
+
+    private static final NodeCodec<Long> LONGS = new NodeCodec<Long>() {
+        public byte[] encode(Long tee) {
+            return ByteBuffer.allocate(8).putLong(tee).array();
+        }
+
+        public Long decode(ByteBuffer buffer, int offset, int length) {
+            return buffer.getLong(offset);
+        }
+    };
+
+    private NodeCodecs() {
+    }
+
+    /**
+     * UTF-8.
+     */
+    public static NodeCodec<String> strings() {
+        return STRINGS;
+    }
+
+    public static NodeCodec<Integer> integers() {
+        return INTEGERS;
+    }
+
+    public static NodeCodec<Long> longs() {
+        return LONGS;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph;
+
+import java.util.Arrays;
+
+/**
+ * Interns nodes to dense int ids, 0 to size() - 1, in insertion order.
+ * Open addressing over flat arrays, so nothing is boxed per node. Like a
+ * HashMap key, null is a node of its own.
+ */
+public class NodeIndex<T> {
+    private static final Object NULL = new Object();
+
+    private Object[] keys;
+    private int[] slots;
+    private Object[] values;
+    private int size;
+
+    public NodeIndex() {
+        this(16);
+    }
+
+    public NodeIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        keys = new Object[capacity];
+        slots = new int[capacity];
+        values = new Object[Math.max(16, expectedSize)];
+    }
+
+    public int intern(T tee) {
+        Object key = tee == null ? NULL : tee;
+        int slot = find(key);
+        if (keys[slot] != null) {
+            return slots[slot];
+        }
+
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        int id = size++;
+        values[id] = tee;
+        keys[slot] = key;
+        slots[slot] = id;
+
+        if (size * 2 > keys.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    public int indexOf(Object tee) {
+        int slot = find(tee == null ? NULL : tee);
+        return keys[slot] == null ? -1 : slots[slot];
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(int id) {
+        return (T) values[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int find(Object tee) {
+        int mask = keys.length - 1;
+        int h = tee.hashCode();
+        int slot = (h ^ (h >>> 16)) & mask;
+        while (keys[slot] != null && !keys[slot].equals(tee)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        Object[] oldKeys = keys;
+        int[] oldSlots = slots;
+        keys = new Object[oldKeys.length * 2];
+        slots = new int[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                slots[slot] = oldSlots[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A graph that keeps only its node dictionary, and a bit per node, on the heap.
+ * Every node owns two rows of ids, children and undirected neighbors, in off-heap
+ * blocks that double when full; freed blocks are recycled by size class. Edges are
+ * appended as they come, so ingest stays O(1) per edge, and settleAll() sorts and
+ * deduplicates the rows that grew, after which reads binary-search like CompactGraph.
+ * <p>
+ * addEdges settles once at the end; after single addEdge calls the first read
+ * settles. Reads never write otherwise, so once edges stop arriving any number of
+ * threads may read concurrently. Adding edges while reading is not supported.
+ * <p>
+ * Blocks are direct buffers, which the JVM caps with -XX:MaxDirectMemorySize and
+ * by default at the maximum heap size; set it to hold graphs larger than the heap.
+ */
+public class OffHeapGraph<T> extends IndexedGraph<T> {
+    private static final int CHUNK_SHIFT = 20;
+    private static final int OUT = 0, NEIGHBORS = 5;
+    private static final int ADDRESS_HIGH = 0, ADDRESS_LOW = 1, COUNT = 2, CAPACITY = 3, SORTED = 4;
+    private static final int NODE_INTS = 10;
+
+    private final NodeIndex<T> index;
+    private final OffHeapInts rows = new OffHeapInts(CHUNK_SHIFT);
+    private final OffHeapInts nodes = new OffHeapInts(CHUNK_SHIFT);
+    private final long[] freeBlocks = new long[32];
+    private final BitSet dirty = new BitSet();
+    private volatile boolean settled = true;
+    private long top;
+    private long edgeCount;
+    private int[] scratch = new int[16];
+
+    public OffHeapGraph() {
+        this(16);
+    }
+
+    public OffHeapGraph(int expectedNodes) {
+        index = new NodeIndex<T>(expectedNodes);
+        Arrays.fill(freeBlocks, -1L);
+        nodes.ensureCapacity((long) expectedNodes * NODE_INTS);
+    }
+
+    public static <T> OffHeapGraph<T> of(Graph<T> graph) {
+        OffHeapGraph<T> offHeap = new OffHeapGraph<T>(graph.size());
+        offHeap.addEdges(graph.edges());
+        return offHeap;
+    }
+
+    public void addEdge(T from, T to) {
+        int fromId = intern(from);
+        int toId = intern(to);
+        append(fromId, OUT, toId);
+        append(fromId, NEIGHBORS, toId);
+        if (fromId != toId) {
+            append(toId, NEIGHBORS, fromId);
+        }
+        dirty.set(fromId);
+        dirty.set(toId);
+        settled = false;
+    }
+
+    public void addEdge(Edge<T> edge) {
+        addEdge(edge.getFrom(), edge.getTo());
+    }
+
+    public void addEdges(Iterable<Edge<T>> edges) {
+        for (Edge<T> edge : edges) {
+            addEdge(edge.getFrom(), edge.getTo());
+        }
+        settleAll();
+    }
+
+    /**
+     * Sorts and deduplicates every row that grew since the last call.
+     */
+    public synchronized void settleAll() {
+        if (settled) {
+            return;
+        }
+        for (int id = dirty.nextSetBit(0); id >= 0; id = dirty.nextSetBit(id + 1)) {
+            int before = nodes.get(field(id, OUT, SORTED));
+            edgeCount += settle(id, OUT) - before;
+            settle(id, NEIGHBORS);
+        }
+        dirty.clear();
+        settled = true;
+    }
+
+    private void ensureSettled() {
+        if (!settled) {
+            settleAll();
+        }
+    }
+
+    private int intern(T tee) {
+        int known = index.size();
+        int id = index.intern(tee);
+        if (id == known) {
+            nodes.ensureCapacity((long) (id + 1) * NODE_INTS);
+            for (int i = 0; i < NODE_INTS; i++) {
+                nodes.set((long) id * NODE_INTS + i, 0);
+            }
+        }
+        return id;
+    }
+
+    private long field(int id, int row, int field) {
+        return (long) id * NODE_INTS + row + field;
+    }
+
+    private long address(int id, int row) {
+        return ((long) nodes.get(field(id, row, ADDRESS_HIGH)) << 32) | (nodes.get(field(id, row, ADDRESS_LOW)) & 0xffffffffL);
+    }
+
+    private void append(int id, int row, int target) {
+        int count = nodes.get(field(id, row, COUNT));
+        int capacity = nodes.get(field(id, row, CAPACITY));
+        long address = address(id, row);
+        if (count == capacity) {
+            int grown = Math.max(2, capacity * 2);
+            long moved = allocate(grown);
+            for (int i = 0; i < count; i++) {
+                rows.set(moved + i, rows.get(address + i));
+            }
+            if (capacity > 0) {
+                free(address, capacity);
+            }
+            address = moved;
+            nodes.set(field(id, row, ADDRESS_HIGH), (int) (address >>> 32));
+            nodes.set(field(id, row, ADDRESS_LOW), (int) address);
+            nodes.set(field(id, row, CAPACITY), grown);
+        }
+        rows.set(address + count, target);
+        nodes.set(field(id, row, COUNT), count + 1);
+    }
+
+    /**
+     * Blocks are powers of two; a free block links to the next one of its size through its first two ints.
+     */
+    private long allocate(int capacity) {
+        int sizeClass = Integer.numberOfTrailingZeros(capacity);
+        long block = freeBlocks[sizeClass];
+        if (block >= 0) {
+            freeBlocks[sizeClass] = ((long) rows.get(block) << 32) | (rows.get(block + 1) & 0xffffffffL);
+            return block;
+        }
+        block = top;
+        top += capacity;
+        rows.ensureCapacity(top);
+        return block;
+    }
+
+    private void free(long block, int capacity) {
+        int sizeClass = Integer.numberOfTrailingZeros(capacity);
+        long next = freeBlocks[sizeClass];
+        rows.set(block, (int) (next >>> 32));
+        rows.set(block + 1, (int) next);
+        freeBlocks[sizeClass] = block;
+    }
+
+    /**
+     * Sorts and deduplicates whatever was appended to a row since it was last settled.
+     */
+    private int settle(int id, int row) {
+        int count = nodes.get(field(id, row, COUNT));
+        if (nodes.get(field(id, row, SORTED)) == count) {
+            return count;
+        }
+        long address = address(id, row);
+        if (scratch.length < count) {
+            scratch = new int[Math.max(count, scratch.length * 2)];
+        }
+        for (int i = 0; i < count; i++) {
+            scratch[i] = rows.get(address + i);
+        }
+        Arrays.sort(scratch, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || scratch[i] != scratch[i - 1]) {
+                rows.set(address + distinct++, scratch[i]);
+            }
+        }
+        nodes.set(field(id, row, COUNT), distinct);
+        nodes.set(field(id, row, SORTED), distinct);
+        return distinct;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public long edgeCount() {
+        ensureSettled();
+        return edgeCount;
+    }
+
+    public int indexOf(T tee) {
+        return index.indexOf(tee);
+    }
+
+    public T node(int id) {
+        return index.get(id);
+    }
+
+    public int childCount(int id) {
+        ensureSettled();
+        return nodes.get(field(id, OUT, COUNT));
+    }
+
+    public int child(int id, int n) {
+        ensureSettled();
+        return rows.get(address(id, OUT) + n);
+    }
+
+    public int neighborCount(int id) {
+        ensureSettled();
+        return nodes.get(field(id, NEIGHBORS, COUNT));
+    }
+
+    public int neighbor(int id, int n) {
+        ensureSettled();
+        return rows.get(address(id, NEIGHBORS) + n);
+    }
+}
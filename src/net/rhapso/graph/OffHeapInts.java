@@ -0,0 +1,67 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A growable array of ints outside the heap, addressed by long and allocated in
+ * fixed-size direct chunks, so it can outgrow both the heap and the 2GB limit of
+ * a single buffer while the collector only ever sees the chunk objects. Direct
+ * memory is capped by -XX:MaxDirectMemorySize, which defaults to the maximum heap
+ * size, so holding more than the heap needs that flag raised.
+ */
+class OffHeapInts {
+    private final int shift;
+    private final long mask;
+    private final List<IntBuffer> chunks = new ArrayList<IntBuffer>();
+
+    OffHeapInts(int chunkShift) {
+        this.shift = chunkShift;
+        this.mask = (1L << chunkShift) - 1;
+    }
+
+    public int get(long address) {
+        return chunks.get((int) (address >>> shift)).get((int) (address & mask));
+    }
+
+    public void set(long address, int value) {
+        chunks.get((int) (address >>> shift)).put((int) (address & mask), value);
+    }
+
+    public long capacity() {
+        return (long) chunks.size() << shift;
+    }
+
+    public void ensureCapacity(long size) {
+        while (capacity() < size) {
+            chunks.add(ByteBuffer.allocateDirect(4 << shift).order(ByteOrder.nativeOrder()).asIntBuffer());
+        }
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Level-synchronous breadth-first search over the undirected view of an
+ * IndexedGraph, each level expanded in parallel on a ForkJoinPool. Small
+ * frontiers are expanded top-down, every frontier node claiming its unvisited
+ * neighbors in an atomic bitset; once the frontier's edges outnumber those of
+ * the unvisited nodes by the usual factor, unvisited nodes look for a parent in
+ * the frontier instead (bottom-up), which skips most edges around hubs.
+ * <p>
+ * The depth array and the bitset are kept between searches and only the ids a
+ * search reached are reset, so a small vicinity costs no O(n) allocation;
+ * searches on one instance therefore run one at a time.
+ */
+public class ParallelBreadthFirst<T> {
+    private static final int CHUNK = 1024;
+    private static final int ALPHA = 14, BETA = 24;
+
+    private final IndexedGraph<T> graph;
+    private final ForkJoinPool pool;
+    // all -1 and all clear between searches
+    private int[] depth = new int[0];
+    private AtomicLongArray visited = new AtomicLongArray(0);
+
+    public ParallelBreadthFirst(IndexedGraph<T> graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    public ParallelBreadthFirst(IndexedGraph<T> graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+    }
+
+    /**
+     * The hop distance from the source to every node id of the graph, ignoring edge
+     * direction, or -1 for nodes further than maxDepth or not connected at all.
+     */
+    public synchronized int[] depths(T source, int maxDepth) {
+        Visit visit = search(source, maxDepth);
+        int[] result = Arrays.copyOf(depth, graph.size());
+        reset(visit);
+        return result;
+    }
+
+    /**
+     * Searches like depths and also lists the reached nodes level by level. The
+     * number of unexplored edges starts from twice the edge count, an estimate that
+     * needs no pass over the nodes. The caller resets the buffers once done with them.
+     */
+    private Visit search(T source, int maxDepth) {
+        int size = graph.size();
+        if (depth.length < size) {
+            // the graph grew since the last search
+            int capacity = Math.max(size, depth.length * 2);
+            depth = new int[capacity];
+            Arrays.fill(depth, -1);
+            visited = new AtomicLongArray((capacity + 63) >>> 6);
+        }
+        final int[] depth = this.depth;
+        final AtomicLongArray visited = this.visited;
+        Visit visit = new Visit(depth);
+        int start = graph.indexOf(source);
+        if (start < 0) {
+            return visit;
+        }
+
+        long unexploredEdges = 2 * graph.edgeCount();
+
+        claim(visited, start);
+        depth[start] = 0;
+        int[] frontier = {start};
+        visit.add(frontier, 1);
+        int frontierSize = 1;
+        long frontierEdges = graph.neighborCount(start);
+        unexploredEdges -= frontierEdges;
+        boolean bottomUp = false;
+
+        for (int level = 0; level < maxDepth && frontierSize > 0; level++) {
+            if (!bottomUp && frontierEdges > unexploredEdges / ALPHA) {
+                bottomUp = true;
+            } else if (bottomUp && frontierSize < size / BETA) {
+                bottomUp = false;
+            }
+
+            final int current = level;
+            final int[] levelFrontier = frontier;
+            List<Callable<Level>> tasks = new ArrayList<Callable<Level>>();
+            int work = bottomUp ? size : frontierSize;
+            for (int from = 0; from < work; from += CHUNK) {
+                final int first = from;
+                final int end = Math.min(work, from + CHUNK);
+                tasks.add(bottomUp ? new Callable<Level>() {
+                    public Level call() throws Exception {
+                        return bottomUp(first, end, current, depth, visited);
+                    }
+                } : new Callable<Level>() {
+                    public Level call() throws Exception {
+                        return topDown(levelFrontier, first, end, current, depth, visited);
+                    }
+                });
+            }
+
+            frontierSize = 0;
+            frontierEdges = 0;
+            List<Level> levels = run(tasks);
+            for (Level found : levels) {
+                frontierSize += found.count;
+                frontierEdges += found.edges;
+            }
+            frontier = new int[frontierSize];
+            int k = 0;
+            for (Level found : levels) {
+                System.arraycopy(found.nodes, 0, frontier, k, found.count);
+                k += found.count;
+            }
+            visit.add(frontier, frontierSize);
+            unexploredEdges -= frontierEdges;
+        }
+        return visit;
+    }
+
+    /**
+     * The same graph as IndexedGraph.vicinity: every edge with an endpoint fewer than
+     * degrees hops away, the only pairs that filter would accept.
+     */
+    public synchronized CompactGraph<T> vicinity(T node, int degrees) {
+        Visit visit = search(node, degrees);
+        CompactGraph.Builder<T> result = new CompactGraph.Builder<T>();
+        for (int k = 0; k < visit.count; k++) {
+            int u = visit.nodes[k];
+            if (visit.depth[u] >= degrees) {
+                continue;
+            }
+            for (int n = 0; n < graph.neighborCount(u); n++) {
+                int v = graph.neighbor(u, n);
+                if (graph.hasEdgeById(u, v)) {
+                    result.addEdge(graph.node(u), graph.node(v));
+                }
+                if (graph.hasEdgeById(v, u)) {
+                    result.addEdge(graph.node(v), graph.node(u));
+                }
+            }
+        }
+        reset(visit);
+        return result.build();
+    }
+
+    /**
+     * Clears the depth and visited bit of every node the search reached, which are
+     * the only ones it set.
+     */
+    private void reset(Visit visit) {
+        for (int k = 0; k < visit.count; k++) {
+            int id = visit.nodes[k];
+            depth[id] = -1;
+            visited.set(id >>> 6, 0);
+        }
+    }
+
+    private Level topDown(int[] frontier, int from, int to, int level, int[] depth, AtomicLongArray visited) {
+        Level found = new Level();
+        for (int k = from; k < to; k++) {
+            int u = frontier[k];
+            for (int n = 0; n < graph.neighborCount(u); n++) {
+                int v = graph.neighbor(u, n);
+                if (claim(visited, v)) {
+                    depth[v] = level + 1;
+                    found.add(v, graph.neighborCount(v));
+                }
+            }
+        }
+        return found;
+    }
+
+    private Level bottomUp(int from, int to, int level, int[] depth, AtomicLongArray visited) {
+        Level found = new Level();
+        for (int v = from; v < to; v++) {
+            if (isVisited(visited, v)) {
+                continue;
+            }
+            for (int n = 0; n < graph.neighborCount(v); n++) {
+                if (depth[graph.neighbor(v, n)] == level) {
+                    claim(visited, v);
+                    depth[v] = level + 1;
+                    found.add(v, graph.neighborCount(v));
+                    break;
+                }
+            }
+        }
+        return found;
+    }
+
+    private static boolean isVisited(AtomicLongArray visited, int id) {
+        return (visited.get(id >>> 6) & (1L << id)) != 0;
+    }
+
+    /**
+     * Sets the bit of a node; true for the one caller that actually set it.
+     */
+    private static boolean claim(AtomicLongArray visited, int id) {
+        int word = id >>> 6;
+        long bit = 1L << id;
+        while (true) {
+            long bits = visited.get(word);
+            if ((bits & bit) != 0) {
+                return false;
+            }
+            if (visited.compareAndSet(word, bits, bits | bit)) {
+                return true;
+            }
+        }
+    }
+
+    private List<Level> run(List<Callable<Level>> tasks) {
+        List<Level> levels = new ArrayList<Level>(tasks.size());
+        try {
+            for (Future<Level> future : pool.invokeAll(tasks)) {
+                levels.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+        return levels;
+    }
+
+    /**
+     * The depths of a search and the nodes it reached, in level order.
+     */
+    private static class Visit {
+        final int[] depth;
+        int[] nodes = new int[16];
+        int count;
+
+        Visit(int[] depth) {
+            this.depth = depth;
+        }
+
+        void add(int[] frontier, int size) {
+            if (count + size > nodes.length) {
+                nodes = Arrays.copyOf(nodes, Math.max(count + size, nodes.length * 2));
+            }
+            System.arraycopy(frontier, 0, nodes, count, size);
+            count += size;
+        }
+    }
+
+    /**
+     * Nodes one task discovered for the next level, and the sum of their degrees.
+     */
+    private static class Level {
+        int[] nodes = new int[16];
+        int count;
+        long edges;
+
+        void add(int id, int degree) {
+            if (count == nodes.length) {
+                nodes = Arrays.copyOf(nodes, count * 2);
+            }
+            nodes[count++] = id;
+            edges += degree;
+        }
+    }
+}
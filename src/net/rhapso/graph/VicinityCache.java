@@ -0,0 +1,280 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Remembers vicinity queries on an AdjacencyList, least recently used first out
+ * once the cached neighborhoods hold more than a given number of nodes plus
+ * edges; a neighborhood heavier than that on its own is never cached. An edge
+ * added through the cache only drops the neighborhoods it would change, those
+ * where one of its ends lies closer to the center than their radius; edges added
+ * to the graph directly are noticed on the next call and drop everything.
+ * Misses are computed outside the cache lock, so they never hold up hits.
+ * Cached graphs are immutable CompactGraphs.
+ */
+public class VicinityCache<T> {
+    private final AdjacencyList<T> graph;
+    private final long maxWeight;
+    private final LinkedHashMap<Key<T>, Entry<T>> entries = new LinkedHashMap<Key<T>, Entry<T>>(16, 0.75f, true);
+    private final Map<T, Set<Key<T>>> inner = new HashMap<T, Set<Key<T>>>();
+    // readers of the graph against addEdge, apart from the lock on the cache itself
+    private final ReadWriteLock graphLock = new ReentrantReadWriteLock();
+    private int version;
+    private long weight;
+    private long hits, misses, evictions, invalidations;
+
+    public VicinityCache(AdjacencyList<T> graph, long maxWeight) {
+        this.graph = graph;
+        this.maxWeight = maxWeight;
+        this.version = graph.version();
+    }
+
+    public Graph<T> vicinity(T node, int degrees) {
+        Key<T> key = new Key<T>(node, degrees);
+        synchronized (this) {
+            checkVersion();
+            Entry<T> entry = entries.get(key);
+            if (entry != null) {
+                hits++;
+                return entry.vicinity;
+            }
+            misses++;
+        }
+
+        Entry<T> entry;
+        int computedAt;
+        graphLock.readLock().lock();
+        try {
+            computedAt = graph.version();
+            CompactGraph<T> vicinity = CompactGraph.of(graph.vicinity(node, degrees));
+            entry = new Entry<T>(vicinity, innerNodes(vicinity, node, degrees));
+        } finally {
+            graphLock.readLock().unlock();
+        }
+
+        synchronized (this) {
+            checkVersion();
+            if (computedAt == version && entry.weight() <= maxWeight && !entries.containsKey(key)) {
+                insert(key, entry);
+            }
+        }
+        return entry.vicinity;
+    }
+
+    private void insert(Key<T> key, Entry<T> entry) {
+        entries.put(key, entry);
+        weight += entry.weight();
+        for (T tee : entry.inner) {
+            Set<Key<T>> keys = inner.get(tee);
+            if (keys == null) {
+                keys = new HashSet<Key<T>>();
+                inner.put(tee, keys);
+            }
+            keys.add(key);
+        }
+
+        Iterator<Map.Entry<Key<T>, Entry<T>>> eldest = entries.entrySet().iterator();
+        while (weight > maxWeight) {
+            Map.Entry<Key<T>, Entry<T>> evicted = eldest.next();
+            eldest.remove();
+            forget(evicted.getKey(), evicted.getValue());
+            evictions++;
+        }
+    }
+
+    /**
+     * Adds the edge to the graph and drops every cached neighborhood it changes.
+     */
+    public void addEdge(T from, T to) {
+        graphLock.writeLock().lock();
+        try {
+            synchronized (this) {
+                checkVersion();
+                graph.addEdge(from, to);
+                invalidate(from);
+                invalidate(to);
+                version = graph.version();
+            }
+        } finally {
+            graphLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops everything if the graph changed without going through the cache.
+     */
+    private void checkVersion() {
+        if (graph.version() != version) {
+            invalidateAll();
+            version = graph.version();
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        invalidations += entries.size();
+        entries.clear();
+        inner.clear();
+        weight = 0;
+    }
+
+    private void invalidate(T tee) {
+        Set<Key<T>> keys = inner.remove(tee);
+        if (keys == null) {
+            return;
+        }
+        for (Key<T> key : keys) {
+            Entry<T> entry = entries.remove(key);
+            if (entry != null) {
+                forget(key, entry);
+                invalidations++;
+            }
+        }
+    }
+
+    private void forget(Key<T> key, Entry<T> entry) {
+        weight -= entry.weight();
+        for (T tee : entry.inner) {
+            Set<Key<T>> keys = inner.get(tee);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    inner.remove(tee);
+                }
+            }
+        }
+    }
+
+    /**
+     * Nodes of the neighborhood fewer than degrees hops from its center. The neighborhood
+     * holds every edge leaving them, so its own distances are those of the whole graph.
+     */
+    private Set<T> innerNodes(Graph<T> vicinity, T center, final int degrees) {
+        final Map<T, Integer> depths = new HashMap<T, Integer>();
+        // a list rather than a deque, which would refuse a null node
+        final List<T> queue = new ArrayList<T>();
+        depths.put(center, 0);
+        queue.add(center);
+        Set<T> result = new HashSet<T>();
+        for (int head = 0; head < queue.size(); head++) {
+            T node = queue.get(head);
+            final int depth = depths.get(node);
+            if (depth >= degrees) {
+                continue;
+            }
+            result.add(node);
+            vicinity.forEachNeighbor(node, new Consumer<T>() {
+                public void accept(T neighbor) {
+                    if (!depths.containsKey(neighbor)) {
+                        depths.put(neighbor, depth + 1);
+                        queue.add(neighbor);
+                    }
+                }
+            });
+        }
+        return result;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Nodes plus edges of every cached neighborhood.
+     */
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    public synchronized double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0d : (double) hits / requests;
+    }
+
+    private static class Entry<T> {
+        final CompactGraph<T> vicinity;
+        final Set<T> inner;
+
+        Entry(CompactGraph<T> vicinity, Set<T> inner) {
+            this.vicinity = vicinity;
+            this.inner = inner;
+        }
+
+        long weight() {
+            return vicinity.size() + vicinity.edgeCount();
+        }
+    }
+
+    private static class Key<T> {
+        final T node;
+        final int degrees;
+
+        Key(T node, int degrees) {
+            this.node = node;
+            this.degrees = degrees;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key<?> key = (Key<?>) o;
+            return degrees == key.degrees && Objects.equals(node, key.node);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(node) + degrees;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph.layout;
+
+import net.rhapso.graph.Graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Lays out every connected component on its own, in parallel, and packs the
+ * resulting bounding boxes into rows on a single canvas. Components never
+ * repel each other, so the all-pairs cost only applies within a component.
+ */
+public class ComponentLayout<T> {
+    private final Graph<T> graph;
+    private final List<Graph<T>> components;
+    private ExecutorService executor = ForkJoinPool.commonPool();
+    private float theta = 0f;
+
+    public ComponentLayout(Graph<T> graph) {
+        this.graph = graph;
+        this.components = graph.subgraphs();
+    }
+
+    public List<Graph<T>> components() {
+        return components;
+    }
+
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public void setTheta(float theta) {
+        this.theta = theta;
+    }
+
+    public LayoutWeaver<T> layout(final float damping, final float springConstant, final int iterations) {
+        List<Callable<LayoutWeaver<T>>> tasks = new ArrayList<Callable<LayoutWeaver<T>>>();
+        for (final Graph<T> component : components) {
+            tasks.add(new Callable<LayoutWeaver<T>>() {
+                public LayoutWeaver<T> call() throws Exception {
+                    LayoutWeaver<T> weaver = new LayoutWeaver<T>(component);
+                    weaver.setTheta(theta);
+                    for (int i = 0; i < iterations; i++) {
+                        weaver.convergeOnce(damping, springConstant);
+                    }
+                    return weaver;
+                }
+            });
+        }
+
+        List<LayoutWeaver<T>> weavers = new ArrayList<LayoutWeaver<T>>();
+        try {
+            for (Future<LayoutWeaver<T>> future : executor.invokeAll(tasks)) {
+                weavers.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+
+        return pack(weavers);
+    }
+
+    /**
+     * Shelf packing: boxes go tallest first, left to right, into rows about as
+     * wide as the square root of their total area.
+     */
+    private LayoutWeaver<T> pack(List<LayoutWeaver<T>> weavers) {
+        List<Box> boxes = new ArrayList<Box>();
+        double area = 0d;
+        for (LayoutWeaver<T> weaver : weavers) {
+            Box box = new Box(weaver);
+            boxes.add(box);
+            area += (double) box.width * box.height;
+        }
+        float padding = boxes.isEmpty() ? 0f : (float) Math.sqrt(area / boxes.size()) * 0.1f;
+        float rowWidth = (float) Math.sqrt(area) * 1.2f;
+
+        Collections.sort(boxes, new Comparator<Box>() {
+            public int compare(Box left, Box right) {
+                return Float.compare(right.height, left.height);
+            }
+        });
+
+        LayoutWeaver<T> packed = new LayoutWeaver<T>(graph);
+        float cursorX = 0f, cursorY = 0f, rowHeight = 0f;
+        for (Box box : boxes) {
+            if (cursorX > 0f && cursorX + box.width > rowWidth) {
+                cursorX = 0f;
+                cursorY += rowHeight + padding;
+                rowHeight = 0f;
+            }
+            for (Point<T> point : box.weaver.nodes()) {
+                packed.place(point.getT(), cursorX + point.getX() - box.left, cursorY + point.getY() - box.top);
+            }
+            cursorX += box.width + padding;
+            rowHeight = Math.max(rowHeight, box.height);
+        }
+        return packed;
+    }
+
+    private class Box {
+        final LayoutWeaver<T> weaver;
+        final float left, top, width, height;
+
+        Box(LayoutWeaver<T> weaver) {
+            this.weaver = weaver;
+            Point<T> lower = weaver.lowerBoundary();
+            Point<T> upper = weaver.upperBoundary();
+            left = lower.getX();
+            top = lower.getY();
+            width = upper.getX() - left;
+            height = upper.getY() - top;
+        }
+    }
+}
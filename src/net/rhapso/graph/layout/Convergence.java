@@ -0,0 +1,217 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph.layout;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stopping rules and step control for a run of convergence passes.
+ * <p>
+ * A run stops at the first of: energy below the target, an energy trend that
+ * no longer improves over the stall window, the iteration limit, or the
+ * wall-clock budget. The step length of every node can be capped by a
+ * temperature, either cooled geometrically or adapted to the energy trend.
+ */
+public class Convergence {
+    private final float damping, springConstant;
+    private double targetEnergy = 0d;
+    private int maxIterations = 10000;
+    private long budgetNanos = Long.MAX_VALUE;
+    private int stallWindow = 50;
+    private double stallTolerance = 0.001d;
+    private float initialStep = Float.MAX_VALUE;
+    private float cooling = 1f;
+    private boolean adaptive = false;
+    private Monitor monitor;
+
+    public Convergence(float damping, float springConstant) {
+        this.damping = damping;
+        this.springConstant = springConstant;
+    }
+
+    private Convergence(Convergence other) {
+        this(other.damping, other.springConstant);
+        targetEnergy = other.targetEnergy;
+        maxIterations = other.maxIterations;
+        budgetNanos = other.budgetNanos;
+        stallWindow = other.stallWindow;
+        stallTolerance = other.stallTolerance;
+        initialStep = other.initialStep;
+        cooling = other.cooling;
+        adaptive = other.adaptive;
+        monitor = other.monitor;
+    }
+
+    public Convergence targetEnergy(double targetEnergy) {
+        this.targetEnergy = targetEnergy;
+        return this;
+    }
+
+    public Convergence maxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+        return this;
+    }
+
+    public Convergence timeBudget(long duration, TimeUnit unit) {
+        this.budgetNanos = unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * Stops once the mean energy of the last half of the window is not at least
+     * tolerance (relative) below the mean of the first half. A window of 0 disables it.
+     */
+    public Convergence stallDetection(int window, double tolerance) {
+        this.stallWindow = window;
+        this.stallTolerance = tolerance;
+        return this;
+    }
+
+    /**
+     * Caps the distance a node may travel in one pass, starting at initialStep and
+     * multiplied by the cooling factor after every pass.
+     */
+    public Convergence temperature(float initialStep, float cooling) {
+        this.initialStep = initialStep;
+        this.cooling = cooling;
+        this.adaptive = false;
+        return this;
+    }
+
+    /**
+     * Caps the step like {@link #temperature(float, float)}, but grows it again after
+     * five passes of falling energy and shrinks it whenever energy rises.
+     */
+    public Convergence adaptiveStep(float initialStep) {
+        this.initialStep = initialStep;
+        this.cooling = 0.9f;
+        this.adaptive = true;
+        return this;
+    }
+
+    /**
+     * Hands control to the monitor after every pass; replaces any monitor set before.
+     */
+    public Convergence monitor(Monitor monitor) {
+        this.monitor = monitor;
+        return this;
+    }
+
+    /**
+     * A copy of these rules watched by the given monitor, leaving this one untouched.
+     */
+    public Convergence withMonitor(Monitor monitor) {
+        return new Convergence(this).monitor(monitor);
+    }
+
+    public float getDamping() {
+        return damping;
+    }
+
+    public float getSpringConstant() {
+        return springConstant;
+    }
+
+    ConvergenceResult run(Pass pass) {
+        long start = System.nanoTime();
+        double[] history = new double[Math.max(stallWindow, 1)];
+        float step = initialStep;
+        int progress = 0;
+        double energy = Double.MAX_VALUE;
+        int iterations = 0;
+
+        while (true) {
+            if (iterations >= maxIterations) {
+                return new ConvergenceResult(iterations, energy, System.nanoTime() - start, ConvergenceResult.Reason.MAX_ITERATIONS);
+            }
+            if (System.nanoTime() - start >= budgetNanos) {
+                return new ConvergenceResult(iterations, energy, System.nanoTime() - start, ConvergenceResult.Reason.TIME_BUDGET);
+            }
+
+            double previous = energy;
+            energy = pass.step(damping, springConstant, step);
+            history[iterations % history.length] = energy;
+            iterations++;
+
+            if (monitor != null && !monitor.afterPass(iterations, energy)) {
+                return new ConvergenceResult(iterations, energy, System.nanoTime() - start, ConvergenceResult.Reason.CANCELLED);
+            }
+            if (energy <= targetEnergy) {
+                return new ConvergenceResult(iterations, energy, System.nanoTime() - start, ConvergenceResult.Reason.TARGET_ENERGY);
+            }
+            if (stallWindow > 1 && iterations >= stallWindow && isStalled(history, iterations)) {
+                return new ConvergenceResult(iterations, energy, System.nanoTime() - start, ConvergenceResult.Reason.STALLED);
+            }
+
+            if (adaptive) {
+                if (energy < previous) {
+                    if (++progress >= 5) {
+                        progress = 0;
+                        step /= cooling;
+                    }
+                } else {
+                    progress = 0;
+                    step *= cooling;
+                }
+            } else if (step != Float.MAX_VALUE) {
+                step *= cooling;
+            }
+        }
+    }
+
+    private boolean isStalled(double[] history, int iterations) {
+        int half = stallWindow / 2;
+        double older = 0d, newer = 0d;
+        for (int i = 0; i < stallWindow; i++) {
+            // oldest entry first
+            double energy = history[(iterations + i) % stallWindow];
+            if (i < half) {
+                older += energy;
+            } else {
+                newer += energy;
+            }
+        }
+        older /= half;
+        newer /= stallWindow - half;
+        return newer > older * (1d - stallTolerance);
+    }
+
+    /**
+     * Watches a run between passes, when the layout is consistent.
+     */
+    public static interface Monitor {
+        /**
+         * Returns false to stop the run.
+         */
+        public boolean afterPass(int iterations, double energy);
+    }
+
+    /**
+     * One pass of a layout engine, moving no node further than maxStep.
+     */
+    static interface Pass {
+        public double step(float damping, float springConstant, float maxStep);
+    }
+}
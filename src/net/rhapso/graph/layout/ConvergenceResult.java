@@ -0,0 +1,69 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph.layout;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of a run of convergence passes.
+ */
+public class ConvergenceResult {
+    public static enum Reason {
+        TARGET_ENERGY, STALLED, MAX_ITERATIONS, TIME_BUDGET, CANCELLED
+    }
+
+    private final int iterations;
+    private final double energy;
+    private final long elapsedNanos;
+    private final Reason reason;
+
+    public ConvergenceResult(int iterations, double energy, long elapsedNanos, Reason reason) {
+        this.iterations = iterations;
+        this.energy = energy;
+        this.elapsedNanos = elapsedNanos;
+        this.reason = reason;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public double getEnergy() {
+        return energy;
+    }
+
+    public long getElapsed(TimeUnit unit) {
+        return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    @Override
+    public String toString() {
+        return "[iterations: " + iterations + ", energy: " + energy + ", elapsed: " + getElapsed(TimeUnit.MILLISECONDS) + "ms, reason: " + reason + "]";
+    }
+}
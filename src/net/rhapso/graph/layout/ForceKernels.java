@@ -0,0 +1,52 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph.layout;
+
+/**
+ * Picks the fastest ForceKernel this JVM can run: VectorizedForces when the
+ * jdk.incubator.vector module is resolved, ScalarForces otherwise. Setting the
+ * system property {@code net.rhapso.graph.layout.scalar} forces the scalar loops.
+ */
+class ForceKernels {
+    private static final ForceKernel FASTEST = load();
+
+    public static ForceKernel fastest() {
+        return FASTEST;
+    }
+
+    private static ForceKernel load() {
+        if (Boolean.getBoolean("net.rhapso.graph.layout.scalar")) {
+            return new ScalarForces();
+        }
+
+        try {
+            return (ForceKernel) Class.forName("net.rhapso.graph.layout.VectorizedForces").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            return new ScalarForces();
+        } catch (LinkageError e) {
+            return new ScalarForces();
+        }
+    }
+}
@@ -0,0 +1,514 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph.layout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Struct-of-arrays state behind a LayoutWeaver: positions, velocities and
+ * neighbor lists of every node, addressed by dense int index. A convergence
+ * pass reads and writes nothing but these arrays and allocates no objects.
+ */
+class ForceLayout {
+    private static final int CHUNK = 256;
+
+    private int size;
+    private float[] x = new float[16], y = new float[16];
+    private float[] nextX = new float[16], nextY = new float[16];
+    private float[] energy = new float[16];
+    private float[] vx = new float[16], vy = new float[16];
+    private float[] forceX = new float[16], forceY = new float[16];
+    private int[] degree = new int[16];
+    private float[] charge = new float[16];
+    private int[][] adjacency = new int[16][];
+    private final QuadTree quadTree = new QuadTree();
+    private final ForceKernel kernel;
+    private float maxStep = Float.MAX_VALUE;
+    private float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+    private float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+    private boolean boundsValid = true;
+
+    public ForceLayout() {
+        this(ForceKernels.fastest());
+    }
+
+    ForceLayout(ForceKernel kernel) {
+        this.kernel = kernel;
+    }
+
+    public int add(float px, float py) {
+        if (size == x.length) {
+            grow(size * 2);
+        }
+        int index = size++;
+        x[index] = px;
+        y[index] = py;
+        vx[index] = 0f;
+        vy[index] = 0f;
+        degree[index] = 0;
+        charge[index] = 0f;
+        adjacency[index] = new int[4];
+        if (boundsValid) {
+            extendBounds(px, py);
+        }
+        return index;
+    }
+
+    /**
+     * Records an undirected link between two nodes; returns false if it was already known.
+     * The check scans the row of from, so callers that already know the link is new use addLink.
+     */
+    public boolean link(int from, int to) {
+        if (isLinked(from, to)) {
+            return false;
+        }
+        addLink(from, to);
+        return true;
+    }
+
+    /**
+     * Records a link the caller knows to be new, in constant time.
+     */
+    void addLink(int from, int to) {
+        append(from, to);
+        if (from != to) {
+            append(to, from);
+        }
+    }
+
+    public boolean isLinked(int from, int to) {
+        int[] neighbors = adjacency[from];
+        for (int i = 0; i < degree[from]; i++) {
+            if (neighbors[i] == to) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void append(int from, int to) {
+        if (degree[from] == adjacency[from].length) {
+            adjacency[from] = Arrays.copyOf(adjacency[from], degree[from] * 2);
+        }
+        adjacency[from][degree[from]++] = to;
+        charge[from] = degree[from];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public float getX(int index) {
+        return x[index];
+    }
+
+    public float getY(int index) {
+        return y[index];
+    }
+
+    public void setPosition(int index, float px, float py) {
+        trackBounds(x[index], y[index], px, py);
+        x[index] = px;
+        y[index] = py;
+    }
+
+    public float getMinX() {
+        ensureBounds();
+        return minX;
+    }
+
+    public float getMinY() {
+        ensureBounds();
+        return minY;
+    }
+
+    public float getMaxX() {
+        ensureBounds();
+        return maxX;
+    }
+
+    public float getMaxY() {
+        ensureBounds();
+        return maxY;
+    }
+
+    /**
+     * Bounds are rebuilt by every full pass. In between, moves that stay inside
+     * extend them; a node leaving the boundary forces one scan on the next read.
+     */
+    private void trackBounds(float oldX, float oldY, float newX, float newY) {
+        if (!boundsValid) {
+            return;
+        }
+        if (oldX == minX || oldX == maxX || oldY == minY || oldY == maxY) {
+            boundsValid = false;
+        } else {
+            extendBounds(newX, newY);
+        }
+    }
+
+    private void resetBounds() {
+        minX = Float.MAX_VALUE;
+        minY = Float.MAX_VALUE;
+        maxX = -Float.MAX_VALUE;
+        maxY = -Float.MAX_VALUE;
+        boundsValid = true;
+    }
+
+    private void extendBounds(float px, float py) {
+        if (px < minX) minX = px;
+        if (px > maxX) maxX = px;
+        if (py < minY) minY = py;
+        if (py > maxY) maxY = py;
+    }
+
+    private void ensureBounds() {
+        if (!boundsValid) {
+            resetBounds();
+            for (int i = 0; i < size; i++) {
+                extendBounds(x[i], y[i]);
+            }
+        }
+    }
+
+    public float getVelocityX(int index) {
+        return vx[index];
+    }
+
+    public float getVelocityY(int index) {
+        return vy[index];
+    }
+
+    public void setVelocity(int index, float velocityX, float velocityY) {
+        vx[index] = velocityX;
+        vy[index] = velocityY;
+    }
+
+    /**
+     * Every node within the given number of hops of a seed, seeds included.
+     */
+    public int[] neighborhood(BitSet seeds, int hops) {
+        BitSet visited = new BitSet(size);
+        visited.or(seeds);
+        int[] frontier = new int[size];
+        int count = 0;
+        for (int i = seeds.nextSetBit(0); i >= 0; i = seeds.nextSetBit(i + 1)) {
+            frontier[count++] = i;
+        }
+
+        int levelStart = 0;
+        for (int hop = 0; hop < hops; hop++) {
+            int levelEnd = count;
+            for (int k = levelStart; k < levelEnd; k++) {
+                int[] neighbors = adjacency[frontier[k]];
+                for (int n = 0; n < degree[frontier[k]]; n++) {
+                    if (!visited.get(neighbors[n])) {
+                        visited.set(neighbors[n]);
+                        frontier[count++] = neighbors[n];
+                    }
+                }
+            }
+            levelStart = levelEnd;
+        }
+
+        return Arrays.copyOf(frontier, count);
+    }
+
+    /**
+     * Breadth-first hop counts from source. Entries of distance must be -1 for
+     * every node not visited yet; the reached nodes are written to order in
+     * visiting order and their count is returned.
+     */
+    public int breadthFirst(int source, int[] distance, int[] order) {
+        distance[source] = 0;
+        order[0] = source;
+        int count = 1;
+        for (int k = 0; k < count; k++) {
+            int u = order[k];
+            for (int n = 0; n < degree[u]; n++) {
+                int v = adjacency[u][n];
+                if (distance[v] < 0) {
+                    distance[v] = distance[u] + 1;
+                    order[count++] = v;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Node indices sorted by decreasing degree.
+     */
+    public int[] byDegree() {
+        int maxDegree = 0;
+        for (int i = 0; i < size; i++) {
+            maxDegree = Math.max(maxDegree, degree[i]);
+        }
+        int[] start = new int[maxDegree + 2];
+        for (int i = 0; i < size; i++) {
+            start[maxDegree - degree[i] + 1]++;
+        }
+        for (int d = 1; d < start.length; d++) {
+            start[d] += start[d - 1];
+        }
+        int[] sorted = new int[size];
+        for (int i = 0; i < size; i++) {
+            sorted[start[maxDegree - degree[i]]++] = i;
+        }
+        return sorted;
+    }
+
+    /**
+     * Scales every position around the origin so that the mean edge length becomes 1.
+     */
+    public void scaleToUnitEdges() {
+        double length = 0d;
+        long edges = 0;
+        for (int i = 0; i < size; i++) {
+            for (int n = 0; n < degree[i]; n++) {
+                int j = adjacency[i][n];
+                float a = x[j] - x[i], b = y[j] - y[i];
+                length += Math.sqrt(a * a + b * b);
+                edges++;
+            }
+        }
+        if (edges == 0 || length == 0d) {
+            return;
+        }
+        float scale = (float) (edges / length);
+        for (int i = 0; i < size; i++) {
+            x[i] *= scale;
+            y[i] *= scale;
+        }
+        boundsValid = false;
+    }
+
+    /**
+     * Puts node i near the barycenter of its neighbors that are not pending
+     * themselves, at about half the edge length found around them. Returns
+     * false if none of its neighbors has been placed yet.
+     */
+    public boolean placeAtBarycenter(int i, BitSet pending, Random random) {
+        float sumX = 0f, sumY = 0f, edgeLength = 0f;
+        int placed = 0, edges = 0;
+
+        for (int n = 0; n < degree[i]; n++) {
+            int j = adjacency[i][n];
+            if (j == i || pending.get(j)) {
+                continue;
+            }
+            sumX += x[j];
+            sumY += y[j];
+            placed++;
+            for (int m = 0; m < degree[j]; m++) {
+                int k = adjacency[j][m];
+                if (k != i && k != j && !pending.get(k)) {
+                    float a = x[k] - x[j], b = y[k] - y[j];
+                    edgeLength += (float) Math.sqrt(a * a + b * b);
+                    edges++;
+                }
+            }
+        }
+
+        if (placed == 0) {
+            return false;
+        }
+
+        float radius = edges > 0 ? edgeLength / edges / 2f : 0.01f;
+        double angle = random.nextDouble() * 2 * Math.PI;
+        setPosition(i, sumX / placed + radius * (float) Math.cos(angle), sumY / placed + radius * (float) Math.sin(angle));
+        setVelocity(i, 0f, 0f);
+        return true;
+    }
+
+    /**
+     * Caps the distance any node travels in one pass; Float.MAX_VALUE lifts the cap.
+     */
+    public void setMaxStep(float maxStep) {
+        this.maxStep = maxStep;
+    }
+
+    public int degree(int index) {
+        return degree[index];
+    }
+
+    public int neighbor(int index, int n) {
+        return adjacency[index][n];
+    }
+
+    /**
+     * One pass of the spring-electric model, moving every node in turn.
+     * A positive theta approximates repulsion with a Barnes-Hut quadtree.
+     */
+    public double convergeOnce(float damping, float springConstant, float theta) {
+        if (theta > 0f) {
+            quadTree.build(x, y, degree, size);
+        }
+
+        double totalEnergy = 0d;
+        resetBounds();
+
+        for (int i = 0; i < size; i++) {
+            totalEnergy += move(i, damping, springConstant, theta);
+            extendBounds(x[i], y[i]);
+        }
+
+        return totalEnergy;
+    }
+
+    /**
+     * A sequential pass that only moves the first count nodes of the given list,
+     * everything else staying put but still pushing and pulling on them.
+     */
+    public double convergeOnce(int[] nodes, int count, float damping, float springConstant, float theta) {
+        if (theta > 0f) {
+            quadTree.build(x, y, degree, size);
+        }
+
+        double totalEnergy = 0d;
+
+        for (int k = 0; k < count; k++) {
+            int i = nodes[k];
+            float oldX = x[i], oldY = y[i];
+            totalEnergy += move(i, damping, springConstant, theta);
+            trackBounds(oldX, oldY, x[i], y[i]);
+        }
+
+        return totalEnergy;
+    }
+
+    private float move(int i, float damping, float springConstant, float theta) {
+        accumulateForces(i, springConstant, theta);
+        float velocity = accelerate(i, damping);
+        x[i] += vx[i];
+        y[i] += vy[i];
+        return velocity * velocity;
+    }
+
+    /**
+     * Same model as {@link #convergeOnce(float, float, float)}, but every node reads
+     * the positions of the previous pass and all moves are applied together. Disjoint
+     * node ranges run on the executor; the result does not depend on the thread count.
+     */
+    public double convergeOnce(final float damping, final float springConstant, final float theta, ExecutorService executor) {
+        if (theta > 0f) {
+            quadTree.build(x, y, degree, size);
+        }
+
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (int from = 0; from < size; from += CHUNK) {
+            final int start = from;
+            final int end = Math.min(size, from + CHUNK);
+            tasks.add(new Callable<Void>() {
+                public Void call() throws Exception {
+                    computeMoves(start, end, damping, springConstant, theta);
+                    return null;
+                }
+            });
+        }
+
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+
+        float[] swap = x;
+        x = nextX;
+        nextX = swap;
+        swap = y;
+        y = nextY;
+        nextY = swap;
+
+        double totalEnergy = 0d;
+        resetBounds();
+        for (int i = 0; i < size; i++) {
+            totalEnergy += energy[i];
+            extendBounds(x[i], y[i]);
+        }
+        return totalEnergy;
+    }
+
+    private void computeMoves(int from, int to, float damping, float springConstant, float theta) {
+        for (int i = from; i < to; i++) {
+            accumulateForces(i, springConstant, theta);
+            float velocity = accelerate(i, damping);
+            energy[i] = velocity * velocity;
+            nextX[i] = x[i] + vx[i];
+            nextY[i] = y[i] + vy[i];
+        }
+    }
+
+    private float accelerate(int i, float damping) {
+        vx[i] = (vx[i] + forceX[i]) * damping;
+        vy[i] = (vy[i] + forceY[i]) * damping;
+        float velocity = (float) Math.sqrt(vx[i] * vx[i] + vy[i] * vy[i]);
+        if (velocity > maxStep) {
+            vx[i] = vx[i] / velocity * maxStep;
+            vy[i] = vy[i] / velocity * maxStep;
+            velocity = maxStep;
+        }
+        return velocity;
+    }
+
+    private void accumulateForces(int i, float springConstant, float theta) {
+        if (theta > 0f) {
+            forceX[i] = 0f;
+            forceY[i] = 0f;
+            quadTree.accumulate(i, theta, forceX, forceY);
+        } else {
+            kernel.repulsion(i, size, x, y, charge, forceX, forceY);
+        }
+        kernel.attraction(i, adjacency[i], degree[i], springConstant, x, y, forceX, forceY);
+    }
+
+    private void grow(int capacity) {
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        nextX = Arrays.copyOf(nextX, capacity);
+        nextY = Arrays.copyOf(nextY, capacity);
+        energy = Arrays.copyOf(energy, capacity);
+        vx = Arrays.copyOf(vx, capacity);
+        vy = Arrays.copyOf(vy, capacity);
+        forceX = Arrays.copyOf(forceX, capacity);
+        forceY = Arrays.copyOf(forceY, capacity);
+        degree = Arrays.copyOf(degree, capacity);
+        charge = Arrays.copyOf(charge, capacity);
+        adjacency = Arrays.copyOf(adjacency, capacity);
+    }
+}
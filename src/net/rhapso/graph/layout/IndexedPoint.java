@@ -0,0 +1,70 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph.layout;
+
+/**
+ * A Point whose coordinates live in a ForceLayout slot, so reads and writes
+ * go straight to the layout arrays, through the view transform of its weaver.
+ */
+class IndexedPoint<T> extends Point<T> {
+    private final ForceLayout layout;
+    private final ViewTransform view;
+    private final int index;
+
+    IndexedPoint(ForceLayout layout, ViewTransform view, int index, T tee) {
+        super(0f, 0f, tee);
+        this.layout = layout;
+        this.view = view;
+        this.index = index;
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    boolean belongsTo(ForceLayout layout) {
+        return this.layout == layout;
+    }
+
+    @Override
+    public float getX() {
+        return view.x(layout.getX(index));
+    }
+
+    @Override
+    public float getY() {
+        return view.y(layout.getY(index));
+    }
+
+    @Override
+    public void move(Vector vector) {
+        layout.setPosition(index, view.inverseX(getX() + vector.getX()), view.inverseY(getY() + vector.getY()));
+    }
+
+    @Override
+    public void dilate(Vector vector) {
+        layout.setPosition(index, view.inverseX(getX() * vector.getX()), view.inverseY(getY() * vector.getY()));
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph.layout;
+
+import net.rhapso.graph.NodeCodec;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Positions and velocities of a LayoutWeaver saved to disk. Loading maps the
+ * file and copies the coordinate arrays in bulk; node ids are only decoded
+ * when the checkpoint is placed. Used as the initial placement of a new
+ * weaver, it restores every node it knows and leaves new ones where they are,
+ * so further passes continue where the saved run stopped.
+ *
+ * The file is a header (magic, version, node count), then the x, y, x velocity
+ * and y velocity arrays, count + 1 offsets into the id area and the encoded ids,
+ * all big-endian.
+ */
+public class LayoutCheckpoint<T> implements InitialPlacement<T> {
+    private static final int MAGIC = 0x524c4159;
+    private static final int VERSION = 1;
+    private static final int HEADER = 12;
+
+    private final NodeCodec<T> codec;
+    private final int size;
+    private final float[] x, y, vx, vy;
+    private final int[] offsets;
+    private final ByteBuffer ids;
+
+    private LayoutCheckpoint(NodeCodec<T> codec, int size, float[] x, float[] y, float[] vx, float[] vy, int[] offsets, ByteBuffer ids) {
+        this.codec = codec;
+        this.size = size;
+        this.x = x;
+        this.y = y;
+        this.vx = vx;
+        this.vy = vy;
+        this.offsets = offsets;
+        this.ids = ids;
+    }
+
+    public static <T> void save(LayoutWeaver<T> weaver, NodeCodec<T> codec, File file) throws IOException {
+        ForceLayout layout = weaver.forceLayout();
+        int size = layout.size();
+        byte[][] encoded = new byte[size][];
+        int i = 0;
+        for (Point<T> point : weaver.nodes()) {
+            encoded[i++] = codec.encode(point.getT());
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(size);
+            for (i = 0; i < size; i++) {
+                out.writeFloat(layout.getX(i));
+            }
+            for (i = 0; i < size; i++) {
+                out.writeFloat(layout.getY(i));
+            }
+            for (i = 0; i < size; i++) {
+                out.writeFloat(layout.getVelocityX(i));
+            }
+            for (i = 0; i < size; i++) {
+                out.writeFloat(layout.getVelocityY(i));
+            }
+            int offset = 0;
+            out.writeInt(offset);
+            for (i = 0; i < size; i++) {
+                offset += encoded[i].length;
+                out.writeInt(offset);
+            }
+            for (i = 0; i < size; i++) {
+                out.write(encoded[i]);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    public static <T> LayoutCheckpoint<T> load(File file, NodeCodec<T> codec) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            if (channel.size() < HEADER || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a layout checkpoint: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not a layout checkpoint: " + file);
+            }
+            int size = buffer.getInt(8);
+            long idStart = HEADER + 16L * size + 4L * (size + 1);
+            if (size < 0 || idStart > buffer.capacity()) {
+                throw new IOException("Truncated layout checkpoint: " + file);
+            }
+
+            float[] x = new float[size], y = new float[size], vx = new float[size], vy = new float[size];
+            buffer.position(HEADER);
+            buffer.slice().asFloatBuffer().get(x).get(y).get(vx).get(vy);
+
+            int[] offsets = new int[size + 1];
+            buffer.position(HEADER + 16 * size);
+            IntBuffer offsetBuffer = buffer.slice().asIntBuffer();
+            offsetBuffer.get(offsets);
+
+            buffer.position((int) idStart);
+            ByteBuffer ids = buffer.slice();
+            if (offsets[0] != 0) {
+                throw new IOException("Corrupt layout checkpoint: " + file);
+            }
+            for (int i = 0; i < size; i++) {
+                if (offsets[i + 1] < offsets[i]) {
+                    throw new IOException("Corrupt layout checkpoint: " + file);
+                }
+            }
+            if (offsets[size] > ids.capacity()) {
+                throw new IOException("Truncated layout checkpoint: " + file);
+            }
+            return new LayoutCheckpoint<T>(codec, size, x, y, vx, vy, offsets, ids);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void place(LayoutWeaver<T> weaver) {
+        ForceLayout layout = weaver.forceLayout();
+        for (int i = 0; i < size; i++) {
+            int id = weaver.idOf(codec.decode(ids, offsets[i], offsets[i + 1] - offsets[i]));
+            if (id >= 0) {
+                layout.setPosition(id, x[i], y[i]);
+                layout.setVelocity(id, vx[i], vy[i]);
+            }
+        }
+    }
+}
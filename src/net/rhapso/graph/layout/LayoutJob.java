@@ -0,0 +1,130 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph.layout;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
+/**
+ * A layout converging in the background. The layout itself must not be used
+ * by anyone else until the result is complete; read snapshots instead.
+ */
+public class LayoutJob<T> implements Convergence.Monitor {
+    private final Layout<T> layout;
+    private final long intervalNanos;
+    private final SnapshotListener<T> listener;
+    private final CompletableFuture<LayoutSnapshot<T>> result = new CompletableFuture<LayoutSnapshot<T>>();
+    private volatile LayoutSnapshot<T> latest;
+    private volatile ConvergenceResult convergenceResult;
+    private volatile boolean cancelled;
+    private boolean paused;
+    private long lastSnapshot = System.nanoTime();
+
+    LayoutJob(Layout<T> layout, long intervalNanos, SnapshotListener<T> listener) {
+        this.layout = layout;
+        this.intervalNanos = intervalNanos;
+        this.listener = listener;
+        this.latest = LayoutSnapshot.of(layout);
+        result.whenComplete(new BiConsumer<LayoutSnapshot<T>, Throwable>() {
+            public void accept(LayoutSnapshot<T> snapshot, Throwable error) {
+                // wakes a paused worker when the future is cancelled from outside
+                cancel();
+            }
+        });
+    }
+
+    void run(Convergence convergence) {
+        try {
+            convergenceResult = layout.converge(convergence.withMonitor(this));
+            latest = LayoutSnapshot.of(layout, convergenceResult.getIterations(), convergenceResult.getEnergy());
+            result.complete(latest);
+        } catch (Throwable e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    public boolean afterPass(int iterations, double energy) {
+        if (System.nanoTime() - lastSnapshot >= intervalNanos) {
+            lastSnapshot = System.nanoTime();
+            latest = LayoutSnapshot.of(layout, iterations, energy);
+            if (listener != null) {
+                listener.onSnapshot(latest);
+            }
+        }
+
+        synchronized (this) {
+            while (paused && !isCancelled()) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return !isCancelled();
+    }
+
+    private boolean isCancelled() {
+        return cancelled || result.isCancelled();
+    }
+
+    /**
+     * The final layout. Cancelling the job completes it early with the positions
+     * reached so far; cancelling the future itself also stops the job.
+     */
+    public CompletableFuture<LayoutSnapshot<T>> result() {
+        return result;
+    }
+
+    /**
+     * Why the run stopped, or null while it is still running.
+     */
+    public ConvergenceResult getConvergenceResult() {
+        return convergenceResult;
+    }
+
+    public LayoutSnapshot<T> latest() {
+        return latest;
+    }
+
+    public synchronized void pause() {
+        paused = true;
+    }
+
+    public synchronized void resume() {
+        paused = false;
+        notifyAll();
+    }
+
+    public synchronized boolean isPaused() {
+        return paused;
+    }
+
+    public synchronized void cancel() {
+        cancelled = true;
+        notifyAll();
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph.layout;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs layouts off the calling thread, so UI and request threads never block
+ * on a converge. Every job publishes snapshots at the requested interval and
+ * can be paused, resumed or cancelled.
+ */
+public class LayoutService {
+    private final Executor executor;
+
+    /**
+     * Each job gets a dedicated daemon thread.
+     */
+    public LayoutService() {
+        this(new Executor() {
+            public void execute(Runnable runnable) {
+                Thread thread = new Thread(runnable, "layout");
+                thread.setDaemon(true);
+                thread.start();
+            }
+        });
+    }
+
+    public LayoutService(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Converges the layout in the background. Each job runs on its own copy of the
+     * convergence, with the job as its monitor, so one Convergence can serve many jobs.
+     */
+    public <T> LayoutJob<T> submit(Layout<T> layout, final Convergence convergence, long interval, TimeUnit unit, SnapshotListener<T> listener) {
+        final LayoutJob<T> job = new LayoutJob<T>(layout, unit.toNanos(interval), listener);
+        executor.execute(new Runnable() {
+            public void run() {
+                job.run(convergence);
+            }
+        });
+        return job;
+    }
+}
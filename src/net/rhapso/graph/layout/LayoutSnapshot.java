@@ -0,0 +1,225 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph.layout;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable copy of the positions of a layout, taken between two passes, with
+ * its links as pairs of node positions so it can be drawn from arrays alone.
+ */
+public class LayoutSnapshot<T> {
+    private final List<T> tees;
+    private final float[] x, y;
+    private final int[] edgeFrom, edgeTo;
+    private final int iterations;
+    private final double energy;
+    private Map<T, Integer> index;
+
+    private LayoutSnapshot(List<T> tees, float[] x, float[] y, int[] edgeFrom, int[] edgeTo, int iterations, double energy) {
+        this.tees = tees;
+        this.x = x;
+        this.y = y;
+        this.edgeFrom = edgeFrom;
+        this.edgeTo = edgeTo;
+        this.iterations = iterations;
+        this.energy = energy;
+    }
+
+    public static <T> LayoutSnapshot<T> of(Layout<T> layout) {
+        return of(layout, 0, Double.NaN);
+    }
+
+    public static <T> LayoutSnapshot<T> of(Layout<T> layout, int iterations, double energy) {
+        int size = layout.size();
+        List<T> tees = new ArrayList<T>(size);
+        float[] x = new float[size], y = new float[size];
+        for (Point<T> point : layout.nodes()) {
+            x[tees.size()] = point.getX();
+            y[tees.size()] = point.getY();
+            tees.add(point.getT());
+        }
+        int[][] edges = layout instanceof LayoutWeaver ? links(((LayoutWeaver<T>) layout).forceLayout())
+                : layout instanceof StressLayout ? links(((StressLayout<T>) layout).forceLayout())
+                : edges(layout, tees);
+        return new LayoutSnapshot<T>(tees, x, y, edges[0], edges[1], iterations, energy);
+    }
+
+    /**
+     * Each link of a force layout once; its node ids are the positions in nodes().
+     */
+    private static int[][] links(ForceLayout layout) {
+        int count = 0;
+        for (int i = 0; i < layout.size(); i++) {
+            count += layout.degree(i);
+        }
+        int[] from = new int[count], to = new int[count];
+        int edges = 0;
+        for (int i = 0; i < layout.size(); i++) {
+            for (int n = 0; n < layout.degree(i); n++) {
+                int j = layout.neighbor(i, n);
+                if (i <= j) {
+                    from[edges] = i;
+                    to[edges++] = j;
+                }
+            }
+        }
+        return new int[][]{Arrays.copyOf(from, edges), Arrays.copyOf(to, edges)};
+    }
+
+    private static <T> int[][] edges(Layout<T> layout, List<T> tees) {
+        final Map<T, Integer> index = new HashMap<T, Integer>(tees.size() * 2);
+        for (int i = 0; i < tees.size(); i++) {
+            index.put(tees.get(i), i);
+        }
+        final int[][] edges = {new int[16], new int[16]};
+        final int[] count = {0};
+        layout.forEachEdge(new BiConsumer<Point<T>, Point<T>>() {
+            public void accept(Point<T> from, Point<T> to) {
+                Integer i = index.get(from.getT()), j = index.get(to.getT());
+                if (i == null || j == null) {
+                    return;
+                }
+                if (count[0] == edges[0].length) {
+                    edges[0] = Arrays.copyOf(edges[0], count[0] * 2);
+                    edges[1] = Arrays.copyOf(edges[1], count[0] * 2);
+                }
+                edges[0][count[0]] = i;
+                edges[1][count[0]++] = j;
+            }
+        });
+        return new int[][]{Arrays.copyOf(edges[0], count[0]), Arrays.copyOf(edges[1], count[0])};
+    }
+
+    public int size() {
+        return tees.size();
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public double getEnergy() {
+        return energy;
+    }
+
+    public Point<T> get(T tee) {
+        int i = indexOf(tee);
+        return i < 0 ? null : new Point<T>(x[i], y[i], tee);
+    }
+
+    /**
+     * The position of a node in this snapshot, or -1; with getX and getY it reads
+     * coordinates without creating Points.
+     */
+    public synchronized int indexOf(T tee) {
+        if (index == null) {
+            index = new HashMap<T, Integer>(tees.size() * 2);
+            for (int i = 0; i < tees.size(); i++) {
+                index.put(tees.get(i), i);
+            }
+        }
+        Integer i = index.get(tee);
+        return i == null ? -1 : i;
+    }
+
+    public float getX(int i) {
+        return x[i];
+    }
+
+    public float getY(int i) {
+        return y[i];
+    }
+
+    public T node(int i) {
+        return tees.get(i);
+    }
+
+    public int edgeCount() {
+        return edgeFrom.length;
+    }
+
+    /**
+     * The position of one end of an edge, for getX and getY.
+     */
+    public int edgeFrom(int edge) {
+        return edgeFrom[edge];
+    }
+
+    public int edgeTo(int edge) {
+        return edgeTo[edge];
+    }
+
+    public List<Point<T>> nodes() {
+        return new AbstractList<Point<T>>() {
+            public Point<T> get(int i) {
+                return new Point<T>(x[i], y[i], tees.get(i));
+            }
+
+            public int size() {
+                return tees.size();
+            }
+        };
+    }
+
+    public Point<T> lowerBoundary() {
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+        for (int i = 0; i < x.length; i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+        }
+        return new Point<T>(minX, minY, null);
+    }
+
+    public Point<T> upperBoundary() {
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for (int i = 0; i < x.length; i++) {
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        return new Point<T>(maxX, maxY, null);
+    }
+
+    /**
+     * A copy moved and scaled into the unit square. A flat axis is only shifted.
+     */
+    public LayoutSnapshot<T> normalized() {
+        Point<T> lower = lowerBoundary(), upper = upperBoundary();
+        ViewTransform view = new ViewTransform();
+        view.fit(lower.getX(), lower.getY(), upper.getX(), upper.getY());
+        float[] nx = new float[x.length], ny = new float[y.length];
+        for (int i = 0; i < x.length; i++) {
+            nx[i] = view.x(x[i]);
+            ny[i] = view.y(y[i]);
+        }
+        return new LayoutSnapshot<T>(tees, nx, ny, edgeFrom, edgeTo, iterations, energy);
+    }
+}
@@ -24,109 +24,236 @@
 
 package net.rhapso.graph.layout;
 
+import com.google.common.collect.Iterables;
 import net.rhapso.graph.AdjacencyList;
 import net.rhapso.graph.Edge;
+import net.rhapso.graph.EdgeCursor;
 import net.rhapso.graph.Graph;
+import net.rhapso.graph.NodeIndex;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
-public class LayoutWeaver<T> implements Graph<Point<T>> {
+public class LayoutWeaver<T> implements Layout<T> {
     private final AdjacencyList<Point<T>> positions;
-    private final Map<T, Point<T>> nodes;
-    private final Map<T, Vector> velocities;
+    private final NodeIndex<T> index;
+    private final List<Point<T>> points;
+    private final ForceLayout layout;
+    private final ViewTransform view = new ViewTransform();
     private Graph<T> originalGraph;
+    private final AdjacencyList<T> addedEdges = new AdjacencyList<T>();
+    private final BitSet pending = new BitSet();
+    private final BitSet touched = new BitSet();
+    private final Random random = new Random();
+    private float theta = 0f;
+    private ExecutorService executor;
 
     public LayoutWeaver(Graph<T> graph) {
+        this(graph, null);
+    }
+
+    /**
+     * Lays the nodes out with the given initial placement instead of random positions.
+     */
+    public LayoutWeaver(Graph<T> graph, InitialPlacement<T> placement) {
         originalGraph = graph;
         positions = new AdjacencyList<Point<T>>();
-        nodes = new HashMap<T, Point<T>>();
-        velocities = new HashMap<T, Vector>();
+        index = new NodeIndex<T>();
+        points = new ArrayList<Point<T>>();
+        layout = new ForceLayout();
 
         for (Edge<T> edge : graph.edges()) {
             Point<T> from = registerPoint(edge.getFrom());
             Point<T> to = registerPoint(edge.getTo());
+            // positions holds both directions of every link, so it tells new links in O(1)
+            if (positions.hasEdge(from, to)) {
+                continue;
+            }
             positions.addEdge(from, to);
             positions.addEdge(to, from);
+            layout.addLink(index.indexOf(edge.getFrom()), index.indexOf(edge.getTo()));
         }
-    }
 
-    private Point<T> registerPoint(T value) {
-        if (nodes.containsKey(value)) {
-            return nodes.get(value);
-        } else {
-            velocities.put(value, new Vector(0, 0));
-            Point<T> point = Point.random(value);
-            nodes.put(value, point);
-            return point;
+        if (placement != null) {
+            placement.place(this);
         }
     }
 
-    public Point<T> get(T tee) {
-        return nodes.get(tee);
+    ForceLayout forceLayout() {
+        return layout;
     }
 
-    public float distance(T from, T to) {
-        Point<T> fromPoint = nodes.get(from);
-        Point<T> toPoint = nodes.get(to);
-        return fromPoint.distance(toPoint);
+    /**
+     * The position of a node in the force layout arrays, or -1 if it is unknown.
+     */
+    int idOf(T tee) {
+        return index.indexOf(tee);
     }
 
-    public double convergeOnce(float damping, float springConstant) {
-        double totalEnergy = 0d;
+    /**
+     * Grows the layout by one edge, keeping every existing position. New nodes
+     * are placed next to their neighbors on the next call to convergeDelta. The
+     * edge may already be in the graph the layout was built from, as when the
+     * caller grows that graph and then the layout.
+     */
+    public void addEdge(T from, T to) {
+        if (!originalGraph.hasEdge(from, to) && !addedEdges.hasEdge(from, to)) {
+            addedEdges.addEdge(from, to);
+        }
+        int linkedFrom = index.indexOf(from), linkedTo = index.indexOf(to);
+        if (linkedFrom >= 0 && linkedTo >= 0 && layout.isLinked(linkedFrom, linkedTo)) {
+            return;
+        }
 
-        for (Point<T> point : nodes()) {
-            Vector momentum = new Vector(0, 0);
+        int known = points.size();
+        Point<T> fromPoint = registerPoint(from);
+        Point<T> toPoint = registerPoint(to);
+        positions.addEdge(fromPoint, toPoint);
+        positions.addEdge(toPoint, fromPoint);
+
+        int fromId = index.indexOf(from);
+        int toId = index.indexOf(to);
+        layout.addLink(fromId, toId);
+        touched.set(fromId);
+        touched.set(toId);
+        pending.set(known, points.size());
+    }
 
+    public void addEdge(Edge<T> edge) {
+        addEdge(edge.getFrom(), edge.getTo());
+    }
 
-            for (Point<T> node : nodes()) {
-                if (!point.equals(node)) {
-                    momentum = momentum.add(point.coulombRepulsion(node, neighbors(node) * neighbors(point), 1.00f));
-                    //momentum = momentum.add(point.coulombRepulsion(node, 1f));
+    /**
+     * Settles the edges added since the last call. New nodes go to the barycenter
+     * of their placed neighbors, then only the nodes within the given number of hops
+     * of a change are relaxed for a few passes, and a single global pass follows.
+     * Returns the energy of that global pass.
+     */
+    public double convergeDelta(float damping, float springConstant, int hops, int localIterations) {
+        boolean progress = true;
+        while (!pending.isEmpty() && progress) {
+            progress = false;
+            for (int i = pending.nextSetBit(0); i >= 0; i = pending.nextSetBit(i + 1)) {
+                if (layout.placeAtBarycenter(i, pending, random)) {
+                    pending.clear(i);
+                    progress = true;
                 }
             }
+        }
+        // whatever is left only touches other new nodes and keeps its random seed position
+        pending.clear();
 
-            for (Point<T> node : children(point)) {
-                momentum = momentum.add(point.hookesAttraction(node).multiply(springConstant));
-            }
-
-            Vector velocity = velocities.get(point.getT());
-            velocity = velocity.add(momentum);
-            velocity = velocity.multiply(damping);
-            totalEnergy += (velocity.length() * velocity.length());
-            point.move(velocity);
-            velocities.put(point.getT(), velocity);
+        int[] region = layout.neighborhood(touched, hops);
+        touched.clear();
+        for (int i = 0; i < localIterations; i++) {
+            layout.convergeOnce(region, region.length, damping, springConstant, theta);
         }
 
-        return totalEnergy;
+        return convergeOnce(damping, springConstant);
     }
 
+    private Point<T> registerPoint(T value) {
+        int id = index.intern(value);
+        if (id < points.size()) {
+            return points.get(id);
+        } else {
+            Point<T> seed = Point.random(value);
+            layout.add(seed.getX(), seed.getY());
+            Point<T> point = new IndexedPoint<T>(layout, view, id, value);
+            points.add(point);
+            return point;
+        }
+    }
 
-    public void normalize() {
-        float minX = Float.MAX_VALUE, maxX = Float.MIN_VALUE, minY = Float.MAX_VALUE, maxY = Float.MIN_VALUE;
+    public Point<T> get(T tee) {
+        int id = index.indexOf(tee);
+        return id < 0 ? null : points.get(id);
+    }
 
-        for (Point<T> point : nodes()) {
-            minX = Math.min(minX, point.getX());
-            maxX = Math.max(maxX, point.getX());
-            minY = Math.min(minY, point.getY());
-            maxY = Math.max(maxY, point.getY());
+    /**
+     * Moves a node to the given position and clears its velocity.
+     */
+    public void place(T tee, float x, float y) {
+        int id = index.indexOf(tee);
+        if (id >= 0) {
+            layout.setPosition(id, view.inverseX(x), view.inverseY(y));
+            layout.setVelocity(id, 0f, 0f);
         }
+    }
+
+    public float distance(T from, T to) {
+        Point<T> fromPoint = get(from);
+        Point<T> toPoint = get(to);
+        return fromPoint.distance(toPoint);
+    }
+
+    /**
+     * Switches repulsion to the Barnes-Hut approximation. Cells whose size over
+     * distance ratio is below theta are treated as a single charge; a theta of 0
+     * computes the exact all-pairs repulsion.
+     */
+    public void setTheta(float theta) {
+        this.theta = theta;
+    }
+
+    public float getTheta() {
+        return theta;
+    }
+
+    /**
+     * Runs convergence passes on the given executor, a ForkJoinPool for instance.
+     * Parallel passes double-buffer positions, so every node reacts to the layout
+     * of the previous pass and the outcome is the same for any number of threads.
+     * A null executor restores the sequential in-place pass.
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
+    }
 
-        float xScale = 1f / (maxX - minX);
-        float yScale = 1f / (maxY - minY);
-        Vector centering = new Vector(-minX, -minY);
-        Vector scaling = new Vector(xScale, yScale);
+    /**
+     * Runs passes until one of the stopping rules of the given Convergence fires.
+     */
+    public ConvergenceResult converge(Convergence convergence) {
+        try {
+            return convergence.run(new Convergence.Pass() {
+                public double step(float damping, float springConstant, float maxStep) {
+                    layout.setMaxStep(maxStep);
+                    return convergeOnce(damping, springConstant);
+                }
+            });
+        } finally {
+            layout.setMaxStep(Float.MAX_VALUE);
+        }
+    }
 
-        for (Point<T> point : nodes()) {
-            point.move(centering);
-            point.dilate(scaling);
+    public double convergeOnce(float damping, float springConstant) {
+        if (executor != null) {
+            return layout.convergeOnce(damping, springConstant, theta, executor);
         }
+        return layout.convergeOnce(damping, springConstant, theta);
+    }
+
+    /**
+     * Makes the points report coordinates in the unit square, based on the bounds
+     * reached so far. The layout arrays are left alone, so convergence is unaffected.
+     */
+    public void normalize() {
+        view.fit(layout.getMinX(), layout.getMinY(), layout.getMaxX(), layout.getMaxY());
     }
-    
+
     public int size() {
-        return positions.size();
+        return points.size();
     }
 
     public Iterable<Point<T>> children(Point<T> tee) {
@@ -134,18 +261,26 @@ public class LayoutWeaver<T> implements Graph<Point<T>> {
     }
 
     public int neighbors(Point<T> tee) {
-        return positions.neighbors(tee);
+        int id = indexOf(tee);
+        return id < 0 ? 0 : layout.degree(id);
+    }
+
+    private int indexOf(Point<T> point) {
+        if (point instanceof IndexedPoint && ((IndexedPoint<T>) point).belongsTo(layout)) {
+            return ((IndexedPoint<T>) point).getIndex();
+        }
+        return index.indexOf(point.getT());
     }
 
     public Iterable<Point<T>> nodes() {
-        return nodes.values();
+        return Collections.unmodifiableList(points);
     }
 
     public Iterable<Edge<Point<T>>> edges() {
         return new Iterable<Edge<Point<T>>>() {
             public Iterator<Edge<Point<T>>> iterator() {
                 return new Iterator<Edge<Point<T>>>() {
-                    Iterator<Edge<T>> iterator = originalGraph.edges().iterator();
+                    Iterator<Edge<T>> iterator = Iterables.concat(originalGraph.edges(), addedEdges.edges()).iterator();
 
                     public boolean hasNext() {
                         return iterator.hasNext();
@@ -162,6 +297,73 @@ public class LayoutWeaver<T> implements Graph<Point<T>> {
         };
     }
 
+    /**
+     * Scans the edges of the graph, then the added ones, finding points through the
+     * node index, so nothing is allocated per edge. Edges the caller added to the
+     * graph but not to the layout have no points yet and are skipped.
+     */
+    public void forEachEdge(final BiConsumer<? super Point<T>, ? super Point<T>> consumer) {
+        BiConsumer<T, T> mapped = new BiConsumer<T, T>() {
+            public void accept(T from, T to) {
+                int fromId = index.indexOf(from), toId = index.indexOf(to);
+                if (fromId >= 0 && toId >= 0) {
+                    consumer.accept(points.get(fromId), points.get(toId));
+                }
+            }
+        };
+        originalGraph.forEachEdge(mapped);
+        addedEdges.forEachEdge(mapped);
+    }
+
+    public void forEachNeighbor(Point<T> tee, Consumer<? super Point<T>> consumer) {
+        int id = indexOf(tee);
+        if (id >= 0) {
+            for (int n = 0; n < layout.degree(id); n++) {
+                consumer.accept(points.get(layout.neighbor(id, n)));
+            }
+        }
+    }
+
+    public EdgeCursor<Point<T>> edgeCursor() {
+        return new EdgeCursor<Point<T>>() {
+            final EdgeCursor<T> original = originalGraph.edgeCursor();
+            final EdgeCursor<T> added = addedEdges.edgeCursor();
+            EdgeCursor<T> current = original;
+            int fromId, toId;
+
+            public boolean next() {
+                while (true) {
+                    if (!current.next()) {
+                        if (current == added) {
+                            return false;
+                        }
+                        current = added;
+                        continue;
+                    }
+                    fromId = index.indexOf(current.from());
+                    toId = index.indexOf(current.to());
+                    if (fromId >= 0 && toId >= 0) {
+                        return true;
+                    }
+                }
+            }
+
+            public Point<T> from() {
+                return points.get(fromId);
+            }
+
+            public Point<T> to() {
+                return points.get(toId);
+            }
+
+            public void reset() {
+                original.reset();
+                added.reset();
+                current = original;
+            }
+        };
+    }
+
     public boolean hasEdge(Point<T> from, Point<T> to) {
         return this.positions.hasEdge(from, to);
     }
@@ -171,27 +373,11 @@ public class LayoutWeaver<T> implements Graph<Point<T>> {
     }
 
     public Point<T> lowerBoundary() {
-        float minX = Float.MAX_VALUE;
-        float minY = Float.MAX_VALUE;
-
-        for (Point<T> point : nodes()) {
-            minX = Math.min(minX, point.getX());
-            minY = Math.min(minY, point.getY());
-        }
-
-        return new Point<T>(minX, minY, null);
+        return new Point<T>(view.x(layout.getMinX()), view.y(layout.getMinY()), null);
     }
 
     public Point<T> upperBoundary() {
-        float maxX = Float.MIN_VALUE;
-        float maxY = Float.MIN_VALUE;
-
-        for (Point<T> point : nodes()) {
-            maxX = Math.max(maxX, point.getX());
-            maxY = Math.max(maxY, point.getY());
-        }
-
-        return new Point<T>(maxX, maxY, null);
+        return new Point<T>(view.x(layout.getMaxX()), view.y(layout.getMaxY()), null);
     }
 
     public List<Graph<Point<T>>> subgraphs() {
@@ -0,0 +1,195 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph.layout;
+
+import net.rhapso.graph.AdjacencyList;
+import net.rhapso.graph.Edge;
+import net.rhapso.graph.Graph;
+import net.rhapso.graph.NodeIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Multilevel force-directed layout. The graph is coarsened by collapsing
+ * matched edges until it is small, the coarsest level is laid out, and the
+ * positions are then interpolated back level by level, each level being
+ * refined with a LayoutWeaver.
+ * <p>
+ * A coarse node is simply the representative of the nodes collapsed into it,
+ * so every level is a Graph&lt;T&gt; of its own.
+ */
+public class MultilevelLayout<T> {
+    private final List<Graph<T>> levels = new ArrayList<Graph<T>>();
+    private final List<Map<T, T>> representatives = new ArrayList<Map<T, T>>();
+    private final Random random = new Random();
+    private float theta = 0.8f;
+    private ExecutorService executor;
+
+    public MultilevelLayout(Graph<T> graph) {
+        this(graph, 50);
+    }
+
+    public MultilevelLayout(Graph<T> graph, int coarsestSize) {
+        levels.add(graph);
+        Graph<T> level = graph;
+        while (level.size() > coarsestSize) {
+            Map<T, T> matching = new HashMap<T, T>();
+            AdjacencyList<T> coarser = coarsen(level, matching);
+            if (coarser.size() == 0 || coarser.size() > level.size() * 0.9) {
+                break;
+            }
+            representatives.add(matching);
+            levels.add(coarser);
+            level = coarser;
+        }
+    }
+
+    /**
+     * Number of levels, the original graph included.
+     */
+    public int levels() {
+        return levels.size();
+    }
+
+    public Graph<T> level(int level) {
+        return levels.get(level);
+    }
+
+    /**
+     * The Barnes-Hut theta every level is refined with, 0.8 unless set; 0 computes
+     * the exact all-pairs repulsion, which gives up the speedup of the coarse levels.
+     */
+    public void setTheta(float theta) {
+        this.theta = theta;
+    }
+
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public LayoutWeaver<T> layout(float damping, float springConstant, int iterationsPerLevel) {
+        LayoutWeaver<T> coarser = null;
+
+        for (int level = levels.size() - 1; level >= 0; level--) {
+            LayoutWeaver<T> weaver = new LayoutWeaver<T>(levels.get(level));
+            weaver.setTheta(theta);
+            weaver.setExecutor(executor);
+            if (coarser != null) {
+                interpolate(weaver, coarser, representatives.get(level));
+            }
+            for (int i = 0; i < iterationsPerLevel; i++) {
+                weaver.convergeOnce(damping, springConstant);
+            }
+            coarser = weaver;
+        }
+
+        return coarser;
+    }
+
+    private void interpolate(LayoutWeaver<T> weaver, LayoutWeaver<T> coarser, Map<T, T> matching) {
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for (Point<T> point : coarser.nodes()) {
+            minX = Math.min(minX, point.getX());
+            minY = Math.min(minY, point.getY());
+            maxX = Math.max(maxX, point.getX());
+            maxY = Math.max(maxY, point.getY());
+        }
+        float width = Math.max(maxX - minX, maxY - minY);
+        float jitter = width > 0 ? width / (float) Math.sqrt(coarser.size()) * 0.1f : 0.01f;
+
+        for (Point<T> point : weaver.nodes()) {
+            T representative = matching.get(point.getT());
+            Point<T> parent = representative == null ? null : coarser.get(representative);
+            if (parent == null) {
+                // the node's whole component collapsed into a single, edgeless coarse node
+                weaver.place(point.getT(), minX + random.nextFloat() * width, minY + random.nextFloat() * width);
+            } else {
+                weaver.place(point.getT(), parent.getX() + (random.nextFloat() - .5f) * jitter, parent.getY() + (random.nextFloat() - .5f) * jitter);
+            }
+        }
+    }
+
+    private AdjacencyList<T> coarsen(Graph<T> graph, Map<T, T> matching) {
+        NodeIndex<T> index = new NodeIndex<T>(graph.size());
+        List<int[]> edges = new ArrayList<int[]>();
+        for (Edge<T> edge : graph.edges()) {
+            edges.add(new int[]{index.intern(edge.getFrom()), index.intern(edge.getTo())});
+        }
+
+        int size = index.size();
+        int[] degree = new int[size];
+        for (int[] edge : edges) {
+            degree[edge[0]]++;
+            degree[edge[1]]++;
+        }
+        int[][] neighbors = new int[size][];
+        for (int i = 0; i < size; i++) {
+            neighbors[i] = new int[degree[i]];
+        }
+        int[] filled = new int[size];
+        for (int[] edge : edges) {
+            neighbors[edge[0]][filled[edge[0]]++] = edge[1];
+            neighbors[edge[1]][filled[edge[1]]++] = edge[0];
+        }
+
+        // greedy matching, pairing every node with its lightest free neighbor
+        int[] representative = new int[size];
+        Arrays.fill(representative, -1);
+        for (int u = 0; u < size; u++) {
+            if (representative[u] >= 0) {
+                continue;
+            }
+            representative[u] = u;
+            int partner = -1;
+            for (int v : neighbors[u]) {
+                if (v != u && representative[v] < 0 && (partner < 0 || degree[v] < degree[partner])) {
+                    partner = v;
+                }
+            }
+            if (partner >= 0) {
+                representative[partner] = u;
+            }
+        }
+
+        AdjacencyList<T> coarser = new AdjacencyList<T>();
+        for (int i = 0; i < size; i++) {
+            matching.put(index.get(i), index.get(representative[i]));
+        }
+        for (int[] edge : edges) {
+            int from = representative[edge[0]];
+            int to = representative[edge[1]];
+            if (from != to) {
+                coarser.addEdge(index.get(from), index.get(to));
+            }
+        }
+        return coarser;
+    }
+}
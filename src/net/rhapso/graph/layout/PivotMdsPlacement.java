@@ -0,0 +1,188 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph.layout;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Pivot MDS (Brandes and Pich): breadth-first distances from a few pivots,
+ * chosen by max-min, are double centered and projected on the two main
+ * eigenvectors, which approximates classical MDS of the full hop-distance
+ * matrix in O(pivots * edges). The result is scaled to unit edge length and
+ * slightly jittered, so nodes with identical distances do not coincide.
+ */
+public class PivotMdsPlacement<T> implements InitialPlacement<T> {
+    private final int pivots;
+    private final long seed;
+
+    public PivotMdsPlacement() {
+        this(50, 0L);
+    }
+
+    public PivotMdsPlacement(int pivots, long seed) {
+        this.pivots = pivots;
+        this.seed = seed;
+    }
+
+    public void place(LayoutWeaver<T> weaver) {
+        ForceLayout layout = weaver.forceLayout();
+        int size = layout.size();
+        if (size == 0) {
+            return;
+        }
+        int k = Math.min(pivots, size);
+
+        double[][] c = pivotDistances(layout, k);
+        doubleCenter(c);
+
+        double[][] m = new double[k][k];
+        for (int p = 0; p < k; p++) {
+            for (int q = p; q < k; q++) {
+                double sum = 0d;
+                for (int i = 0; i < size; i++) {
+                    sum += c[p][i] * c[q][i];
+                }
+                m[p][q] = sum;
+                m[q][p] = sum;
+            }
+        }
+
+        Random random = new Random(seed);
+        double[] first = powerIteration(m, null, random);
+        double[] second = powerIteration(m, first, random);
+
+        for (int i = 0; i < size; i++) {
+            double px = 0d, py = 0d;
+            for (int p = 0; p < k; p++) {
+                px += c[p][i] * first[p];
+                py += c[p][i] * second[p];
+            }
+            layout.setPosition(i, (float) px, (float) py);
+            layout.setVelocity(i, 0f, 0f);
+        }
+
+        layout.scaleToUnitEdges();
+        for (int i = 0; i < size; i++) {
+            layout.setPosition(i, layout.getX(i) + (random.nextFloat() - .5f) * .1f, layout.getY(i) + (random.nextFloat() - .5f) * .1f);
+        }
+    }
+
+    private double[][] pivotDistances(ForceLayout layout, int k) {
+        int size = layout.size();
+        double[][] c = new double[k][size];
+        int[] distance = new int[size];
+        int[] order = new int[size];
+        int[] nearest = new int[size];
+        Arrays.fill(nearest, Integer.MAX_VALUE);
+
+        int pivot = layout.byDegree()[0];
+        int farthest = 0;
+        for (int p = 0; p < k; p++) {
+            Arrays.fill(distance, -1);
+            layout.breadthFirst(pivot, distance, order);
+            int next = pivot;
+            for (int i = 0; i < size; i++) {
+                int d = distance[i] < 0 ? Integer.MAX_VALUE : distance[i];
+                c[p][i] = distance[i];
+                nearest[i] = Math.min(nearest[i], d);
+                if (nearest[i] > nearest[next]) {
+                    next = i;
+                }
+                farthest = Math.max(farthest, distance[i]);
+            }
+            pivot = next;
+        }
+
+        // other components sit just beyond the farthest reachable node
+        for (int p = 0; p < k; p++) {
+            for (int i = 0; i < size; i++) {
+                if (c[p][i] < 0) {
+                    c[p][i] = farthest + 1;
+                }
+            }
+        }
+        return c;
+    }
+
+    private void doubleCenter(double[][] c) {
+        int k = c.length, size = c[0].length;
+        double[] rowMean = new double[size];
+        double[] columnMean = new double[k];
+        double mean = 0d;
+
+        for (int p = 0; p < k; p++) {
+            for (int i = 0; i < size; i++) {
+                c[p][i] *= c[p][i];
+                rowMean[i] += c[p][i] / k;
+                columnMean[p] += c[p][i] / size;
+            }
+            mean += columnMean[p] / k;
+        }
+
+        for (int p = 0; p < k; p++) {
+            for (int i = 0; i < size; i++) {
+                c[p][i] = -.5d * (c[p][i] - rowMean[i] - columnMean[p] + mean);
+            }
+        }
+    }
+
+    private double[] powerIteration(double[][] m, double[] orthogonalTo, Random random) {
+        int k = m.length;
+        double[] v = new double[k];
+        for (int p = 0; p < k; p++) {
+            v[p] = random.nextDouble() - .5d;
+        }
+
+        for (int iteration = 0; iteration < 100; iteration++) {
+            if (orthogonalTo != null) {
+                double dot = 0d;
+                for (int p = 0; p < k; p++) {
+                    dot += v[p] * orthogonalTo[p];
+                }
+                for (int p = 0; p < k; p++) {
+                    v[p] -= dot * orthogonalTo[p];
+                }
+            }
+
+            double[] next = new double[k];
+            double norm = 0d;
+            for (int p = 0; p < k; p++) {
+                for (int q = 0; q < k; q++) {
+                    next[p] += m[p][q] * v[q];
+                }
+                norm += next[p] * next[p];
+            }
+            norm = Math.sqrt(norm);
+            if (norm == 0d) {
+                return v;
+            }
+            for (int p = 0; p < k; p++) {
+                v[p] = next[p] / norm;
+            }
+        }
+        return v;
+    }
+}
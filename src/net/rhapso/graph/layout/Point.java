@@ -24,6 +24,8 @@
 
 package net.rhapso.graph.layout;
 
+import java.util.concurrent.ThreadLocalRandom;
+
 public class Point<T> {
     private float x, y;
     final private T tee;
@@ -39,7 +41,8 @@ public class Point<T> {
     }
 
     public static <T> Point<T> random(T t) {
-        return new Point<T>(new Double(Math.random()).floatValue(), new Double(Math.random()).floatValue(), t);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new Point<T>(random.nextFloat(), random.nextFloat(), t);
     }
 
     public float getX() {
@@ -55,19 +58,19 @@ public class Point<T> {
     }
 
     public Vector hookesAttraction(Point<T> point) {
-        return new Vector(point.x - x, point.y - y);
+        return new Vector(point.getX() - getX(), point.getY() - getY());
     }
 
     public float distance(Point<T> point) {
-        float a = this.x - point.x;
-        float b = this.y - point.y;
+        float a = getX() - point.getX();
+        float b = getY() - point.getY();
         return (float) Math.sqrt(a * a + b * b);
     }
     
     public Vector coulombRepulsion(Point<T> point, float charge, float yAdjust) {
         float inverseDistance = charge / distance(point);
-        float a = this.x - point.x;
-        float b = yAdjust * (this.y - point.y);
+        float a = getX() - point.getX();
+        float b = yAdjust * (getY() - point.getY());
         return new Vector(a, b).normalize().multiply(inverseDistance);  
     }
 
@@ -84,7 +87,7 @@ public class Point<T> {
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (!(o instanceof Point)) return false;
 
         Point point = (Point) o;
 
@@ -100,6 +103,6 @@ public class Point<T> {
 
     @Override
     public String toString() {
-        return "[x: " + x + ", y:" + y + ", value:" + tee.toString() + "]";
+        return "[x: " + getX() + ", y:" + getY() + ", value:" + tee.toString() + "]";
     }
 }
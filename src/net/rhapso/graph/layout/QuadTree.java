@@ -0,0 +1,210 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph.layout;
+
+import java.util.Arrays;
+
+/**
+ * Barnes-Hut quadtree over a set of charged bodies. Far away cells are
+ * approximated by their center of charge, so a repulsion pass costs
+ * O(n log n) instead of O(n^2).
+ * <p>
+ * The tree is backed by flat arrays which are reused from one build to the next.
+ */
+class QuadTree {
+    private static final int MAX_DEPTH = 32;
+
+    private float[] originX = new float[0], originY = new float[0], side = new float[0];
+    private float[] charge = new float[0], chargeX = new float[0], chargeY = new float[0];
+    private int[] firstChild = new int[0], body = new int[0];
+    private int[] next = new int[0];
+    private int cells;
+
+    private float[] x, y;
+    private int[] bodyCharge;
+
+    public void build(float[] x, float[] y, int[] bodyCharge, int count) {
+        this.x = x;
+        this.y = y;
+        this.bodyCharge = bodyCharge;
+        if (next.length < count) {
+            next = new int[count];
+        }
+
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        float rootSide = Math.max(maxX - minX, maxY - minY);
+        rootSide = rootSide > 0 ? rootSide * 1.0001f : 1f;
+
+        cells = 0;
+        newCell(minX, minY, rootSide);
+        for (int i = 0; i < count; i++) {
+            insert(i);
+        }
+
+        // children are always allocated after their parent, so a reverse sweep aggregates bottom up
+        for (int cell = cells - 1; cell >= 0; cell--) {
+            float q = 0f, qx = 0f, qy = 0f;
+            if (firstChild[cell] >= 0) {
+                for (int child = firstChild[cell]; child < firstChild[cell] + 4; child++) {
+                    q += charge[child];
+                    qx += charge[child] * chargeX[child];
+                    qy += charge[child] * chargeY[child];
+                }
+            } else {
+                for (int b = body[cell]; b >= 0; b = next[b]) {
+                    q += bodyCharge[b];
+                    qx += bodyCharge[b] * x[b];
+                    qy += bodyCharge[b] * y[b];
+                }
+            }
+            charge[cell] = q;
+            chargeX[cell] = q > 0 ? qx / q : 0f;
+            chargeY[cell] = q > 0 ? qy / q : 0f;
+        }
+    }
+
+    /**
+     * Adds the repulsion felt by body {@code i} to {@code forceX[i]} and {@code forceY[i]}.
+     * Cells seen under an angle smaller than {@code theta} are treated as a single charge.
+     */
+    public void accumulate(int i, float theta, float[] forceX, float[] forceY) {
+        accumulate(0, i, theta, forceX, forceY);
+    }
+
+    private void accumulate(int cell, int i, float theta, float[] forceX, float[] forceY) {
+        if (charge[cell] == 0f) {
+            return;
+        }
+
+        if (firstChild[cell] < 0) {
+            for (int b = body[cell]; b >= 0; b = next[b]) {
+                if (b != i) {
+                    push(i, x[b], y[b], bodyCharge[b], forceX, forceY);
+                }
+            }
+            return;
+        }
+
+        float a = x[i] - chargeX[cell];
+        float b = y[i] - chargeY[cell];
+        float distance = (float) Math.sqrt(a * a + b * b);
+        if (side[cell] < theta * distance && !contains(cell, x[i], y[i])) {
+            push(i, chargeX[cell], chargeY[cell], charge[cell], forceX, forceY);
+            return;
+        }
+
+        for (int child = firstChild[cell]; child < firstChild[cell] + 4; child++) {
+            accumulate(child, i, theta, forceX, forceY);
+        }
+    }
+
+    private void push(int i, float fromX, float fromY, float fromCharge, float[] forceX, float[] forceY) {
+        float a = x[i] - fromX;
+        float b = y[i] - fromY;
+        float distance = (float) Math.sqrt(a * a + b * b);
+        float inverseDistance = bodyCharge[i] * fromCharge / distance;
+        forceX[i] += a / distance * inverseDistance;
+        forceY[i] += b / distance * inverseDistance;
+    }
+
+    private boolean contains(int cell, float px, float py) {
+        return px >= originX[cell] && px < originX[cell] + side[cell] && py >= originY[cell] && py < originY[cell] + side[cell];
+    }
+
+    private void insert(int b) {
+        next[b] = -1;
+        int cell = 0;
+        int depth = 0;
+
+        while (true) {
+            if (firstChild[cell] >= 0) {
+                cell = quadrant(cell, x[b], y[b]);
+                depth++;
+            } else if (body[cell] < 0) {
+                body[cell] = b;
+                return;
+            } else if (depth >= MAX_DEPTH) {
+                // coincident bodies share a leaf and are handled pairwise
+                next[b] = body[cell];
+                body[cell] = b;
+                return;
+            } else {
+                int resident = body[cell];
+                body[cell] = -1;
+                subdivide(cell);
+                body[quadrant(cell, x[resident], y[resident])] = resident;
+            }
+        }
+    }
+
+    private int quadrant(int cell, float px, float py) {
+        float half = side[cell] / 2f;
+        int index = 0;
+        if (px >= originX[cell] + half) index += 1;
+        if (py >= originY[cell] + half) index += 2;
+        return firstChild[cell] + index;
+    }
+
+    private void subdivide(int cell) {
+        float half = side[cell] / 2f;
+        float ox = originX[cell], oy = originY[cell];
+        int first = newCell(ox, oy, half);
+        newCell(ox + half, oy, half);
+        newCell(ox, oy + half, half);
+        newCell(ox + half, oy + half, half);
+        firstChild[cell] = first;
+    }
+
+    private int newCell(float ox, float oy, float cellSide) {
+        if (cells == originX.length) {
+            grow();
+        }
+        int cell = cells++;
+        originX[cell] = ox;
+        originY[cell] = oy;
+        side[cell] = cellSide;
+        firstChild[cell] = -1;
+        body[cell] = -1;
+        return cell;
+    }
+
+    private void grow() {
+        int capacity = Math.max(64, originX.length * 2);
+        originX = Arrays.copyOf(originX, capacity);
+        originY = Arrays.copyOf(originY, capacity);
+        side = Arrays.copyOf(side, capacity);
+        charge = Arrays.copyOf(charge, capacity);
+        chargeX = Arrays.copyOf(chargeX, capacity);
+        chargeY = Arrays.copyOf(chargeY, capacity);
+        firstChild = Arrays.copyOf(firstChild, capacity);
+        body = Arrays.copyOf(body, capacity);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph.layout;
+
+import java.util.Arrays;
+
+/**
+ * Concentric rings around the highest-degree node: a node at hop distance d
+ * from the root sits on the circle of radius d, in breadth-first order, so
+ * siblings start next to each other. Every further component gets its own
+ * set of rings to the right of the previous one.
+ */
+public class RadialPlacement<T> implements InitialPlacement<T> {
+    public void place(LayoutWeaver<T> weaver) {
+        ForceLayout layout = weaver.forceLayout();
+        int size = layout.size();
+        int[] distance = new int[size];
+        int[] order = new int[size];
+        Arrays.fill(distance, -1);
+        float offset = 0f;
+
+        for (int root : layout.byDegree()) {
+            if (distance[root] >= 0) {
+                continue;
+            }
+            int count = layout.breadthFirst(root, distance, order);
+            int depth = distance[order[count - 1]];
+            int[] ring = new int[depth + 1];
+            for (int k = 0; k < count; k++) {
+                ring[distance[order[k]]]++;
+            }
+
+            int[] seen = new int[depth + 1];
+            float centerX = offset + depth;
+            for (int k = 0; k < count; k++) {
+                int node = order[k];
+                int d = distance[node];
+                double angle = 2 * Math.PI * seen[d]++ / ring[d] + d;
+                layout.setPosition(node, centerX + d * (float) Math.cos(angle), d * (float) Math.sin(angle));
+                layout.setVelocity(node, 0f, 0f);
+            }
+            offset += 2 * depth + 1;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph.layout;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Uniform positions in the unit square. Without a seed the calling thread's
+ * own generator is used; with one, the same graph always starts the same way.
+ */
+public class RandomPlacement<T> implements InitialPlacement<T> {
+    private final Long seed;
+
+    public RandomPlacement() {
+        this.seed = null;
+    }
+
+    public RandomPlacement(long seed) {
+        this.seed = seed;
+    }
+
+    public void place(LayoutWeaver<T> weaver) {
+        Random random = seed == null ? ThreadLocalRandom.current() : new Random(seed);
+        ForceLayout layout = weaver.forceLayout();
+        for (int i = 0; i < layout.size(); i++) {
+            layout.setPosition(i, random.nextFloat(), random.nextFloat());
+            layout.setVelocity(i, 0f, 0f);
+        }
+    }
+}
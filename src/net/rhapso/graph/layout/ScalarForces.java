@@ -0,0 +1,57 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph.layout;
+
+/**
+ * Plain Java loops, the same arithmetic as Point.coulombRepulsion and Point.hookesAttraction.
+ */
+class ScalarForces implements ForceKernel {
+    public void repulsion(int i, int size, float[] x, float[] y, float[] charge, float[] forceX, float[] forceY) {
+        float momentumX = 0f, momentumY = 0f;
+        for (int j = 0; j < size; j++) {
+            if (j != i) {
+                float a = x[i] - x[j];
+                float b = y[i] - y[j];
+                float distance = (float) Math.sqrt(a * a + b * b);
+                float inverseDistance = charge[j] * charge[i] / distance;
+                momentumX += a / distance * inverseDistance;
+                momentumY += b / distance * inverseDistance;
+            }
+        }
+        forceX[i] = momentumX;
+        forceY[i] = momentumY;
+    }
+
+    public void attraction(int i, int[] neighbors, int count, float springConstant, float[] x, float[] y, float[] forceX, float[] forceY) {
+        float momentumX = forceX[i], momentumY = forceY[i];
+        for (int n = 0; n < count; n++) {
+            int j = neighbors[n];
+            momentumX += springConstant * (x[j] - x[i]);
+            momentumY += springConstant * (y[j] - y[i]);
+        }
+        forceX[i] = momentumX;
+        forceY[i] = momentumY;
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph.layout;
+
+import net.rhapso.graph.Edge;
+import net.rhapso.graph.EdgeCursor;
+import net.rhapso.graph.Graph;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Stress majorization over hop distances, an alternative to the spring-electric
+ * model of LayoutWeaver that needs far fewer passes and is deterministic.
+ * <p>
+ * Uses the sparse stress model of Ortmann, Klimenta and Brandes: every node is
+ * pulled to unit length along its edges and to its hop distance from a set of
+ * max-min pivots, each pivot term weighted by the number of nodes it stands
+ * for. With at least as many pivots as nodes this is plain full stress.
+ * Starting positions come from pivot MDS.
+ */
+public class StressLayout<T> implements Layout<T> {
+    private final LayoutWeaver<T> weaver;
+    private final ForceLayout layout;
+    private int[] termOffsets;
+    private int[] termTargets;
+    private float[] termDistances, termWeights;
+
+    public StressLayout(Graph<T> graph) {
+        this(graph, 100);
+    }
+
+    public StressLayout(Graph<T> graph, int pivots) {
+        weaver = new LayoutWeaver<T>(graph, new PivotMdsPlacement<T>(Math.min(pivots, 50), 0L));
+        layout = weaver.forceLayout();
+        buildTerms(Math.min(pivots, layout.size()));
+    }
+
+    ForceLayout forceLayout() {
+        return layout;
+    }
+
+    private void buildTerms(int k) {
+        int size = layout.size();
+        int[][] distances = new int[k][size];
+        int[] nearestPivot = new int[size];
+        int[] nearest = new int[size];
+        int[] order = new int[size];
+        Arrays.fill(nearest, Integer.MAX_VALUE);
+
+        int[] pivots = new int[k];
+        int pivot = size == 0 ? 0 : layout.byDegree()[0];
+        for (int p = 0; p < k; p++) {
+            pivots[p] = pivot;
+            Arrays.fill(distances[p], -1);
+            layout.breadthFirst(pivot, distances[p], order);
+            int next = pivot;
+            for (int i = 0; i < size; i++) {
+                int d = distances[p][i] < 0 ? Integer.MAX_VALUE : distances[p][i];
+                if (d < nearest[i]) {
+                    nearest[i] = d;
+                    nearestPivot[i] = p;
+                }
+                if (nearest[i] > nearest[next]) {
+                    next = i;
+                }
+            }
+            pivot = next;
+        }
+
+        // within[p][d]: nodes represented by pivot p lying at most d hops from it
+        int[][] within = new int[k][];
+        for (int p = 0; p < k; p++) {
+            int farthest = 0;
+            for (int i = 0; i < size; i++) {
+                farthest = Math.max(farthest, distances[p][i]);
+            }
+            within[p] = new int[farthest + 1];
+        }
+        for (int i = 0; i < size; i++) {
+            if (nearest[i] != Integer.MAX_VALUE) {
+                within[nearestPivot[i]][nearest[i]]++;
+            }
+        }
+        for (int p = 0; p < k; p++) {
+            for (int d = 1; d < within[p].length; d++) {
+                within[p][d] += within[p][d - 1];
+            }
+        }
+
+        termOffsets = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            termOffsets[i + 1] = termOffsets[i] + layout.degree(i) + k;
+        }
+        termTargets = new int[termOffsets[size]];
+        termDistances = new float[termOffsets[size]];
+        termWeights = new float[termOffsets[size]];
+
+        int[] ends = new int[size];
+        for (int i = 0; i < size; i++) {
+            int term = termOffsets[i];
+            for (int n = 0; n < layout.degree(i); n++) {
+                int j = layout.neighbor(i, n);
+                if (j != i) {
+                    term = addTerm(term, j, 1, 1f);
+                }
+            }
+            for (int p = 0; p < k; p++) {
+                int j = pivots[p];
+                int d = distances[p][i];
+                if (j == i || d <= 1) {
+                    continue;
+                }
+                int represented = Math.max(1, within[p][Math.min(d / 2, within[p].length - 1)]);
+                term = addTerm(term, j, d, represented / (float) (d * d));
+            }
+            ends[i] = term;
+        }
+        termOffsets = compact(ends);
+    }
+
+    private int addTerm(int term, int target, int distance, float weight) {
+        termTargets[term] = target;
+        termDistances[term] = distance;
+        termWeights[term] = weight;
+        return term + 1;
+    }
+
+    /**
+     * Drops the unused tail of every node's term range, which skipped pivots left behind.
+     */
+    private int[] compact(int[] ends) {
+        int size = ends.length;
+        int[] offsets = new int[size + 1];
+        int write = 0;
+        for (int i = 0; i < size; i++) {
+            int start = termOffsets[i];
+            offsets[i] = write;
+            for (int term = start; term < ends[i]; term++) {
+                termTargets[write] = termTargets[term];
+                termDistances[write] = termDistances[term];
+                termWeights[write] = termWeights[term];
+                write++;
+            }
+        }
+        offsets[size] = write;
+        termTargets = Arrays.copyOf(termTargets, write);
+        termDistances = Arrays.copyOf(termDistances, write);
+        termWeights = Arrays.copyOf(termWeights, write);
+        return offsets;
+    }
+
+    /**
+     * One majorization sweep, moving every node in turn to the weighted average of
+     * where its terms want it, but no further than maxStep. Returns the sum of the
+     * squared moves.
+     */
+    public double iterate(float maxStep) {
+        double moved = 0d;
+
+        for (int i = 0; i < layout.size(); i++) {
+            float xi = layout.getX(i), yi = layout.getY(i);
+            float sumX = 0f, sumY = 0f, sumWeights = 0f;
+
+            for (int term = termOffsets[i]; term < termOffsets[i + 1]; term++) {
+                int j = termTargets[term];
+                float a = xi - layout.getX(j);
+                float b = yi - layout.getY(j);
+                float length = (float) Math.sqrt(a * a + b * b);
+                float weight = termWeights[term];
+                float pull = length > 0f ? termDistances[term] / length : 0f;
+                sumX += weight * (layout.getX(j) + pull * a);
+                sumY += weight * (layout.getY(j) + pull * b);
+                sumWeights += weight;
+            }
+            if (sumWeights == 0f) {
+                continue;
+            }
+
+            float a = sumX / sumWeights - xi;
+            float b = sumY / sumWeights - yi;
+            float step = (float) Math.sqrt(a * a + b * b);
+            if (step > maxStep) {
+                a = a / step * maxStep;
+                b = b / step * maxStep;
+                step = maxStep;
+            }
+            layout.setPosition(i, xi + a, yi + b);
+            moved += step * step;
+        }
+
+        return moved;
+    }
+
+    /**
+     * Runs sweeps under the given stopping rules; damping and spring constant do not apply.
+     */
+    public ConvergenceResult converge(Convergence convergence) {
+        return convergence.run(new Convergence.Pass() {
+            public double step(float damping, float springConstant, float maxStep) {
+                return iterate(maxStep);
+            }
+        });
+    }
+
+    public Point<T> get(T tee) {
+        return weaver.get(tee);
+    }
+
+    public float distance(T from, T to) {
+        return weaver.distance(from, to);
+    }
+
+    public void normalize() {
+        weaver.normalize();
+    }
+
+    public Point<T> lowerBoundary() {
+        return weaver.lowerBoundary();
+    }
+
+    public Point<T> upperBoundary() {
+        return weaver.upperBoundary();
+    }
+
+    public int size() {
+        return weaver.size();
+    }
+
+    public Iterable<Point<T>> children(Point<T> tee) {
+        return weaver.children(tee);
+    }
+
+    public Iterable<Point<T>> nodes() {
+        return weaver.nodes();
+    }
+
+    public Iterable<Edge<Point<T>>> edges() {
+        return weaver.edges();
+    }
+
+    public void forEachEdge(BiConsumer<? super Point<T>, ? super Point<T>> consumer) {
+        weaver.forEachEdge(consumer);
+    }
+
+    public void forEachNeighbor(Point<T> tee, Consumer<? super Point<T>> consumer) {
+        weaver.forEachNeighbor(tee, consumer);
+    }
+
+    public EdgeCursor<Point<T>> edgeCursor() {
+        return weaver.edgeCursor();
+    }
+
+    public boolean hasEdge(Point<T> from, Point<T> to) {
+        return weaver.hasEdge(from, to);
+    }
+
+    public List<Graph<Point<T>>> subgraphs() {
+        return weaver.subgraphs();
+    }
+
+    public int neighbors(Point<T> tee) {
+        return weaver.neighbors(tee);
+    }
+
+    public Graph<Point<T>> explore(Point<T> from, NodeFilter<Point<T>> filter) {
+        return weaver.explore(from, filter);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph.layout;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD version of the force loops on top of the incubating JDK Vector API.
+ * <p>
+ * Compiling and running this class needs {@code --add-modules jdk.incubator.vector};
+ * ForceKernels only picks it when the module is present and falls back to
+ * ScalarForces otherwise. Lanes are summed in a different order than the scalar
+ * loops, so results agree up to float rounding.
+ */
+class VectorizedForces implements ForceKernel {
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    public void repulsion(int i, int size, float[] x, float[] y, float[] charge, float[] forceX, float[] forceY) {
+        FloatVector xi = FloatVector.broadcast(SPECIES, x[i]);
+        FloatVector yi = FloatVector.broadcast(SPECIES, y[i]);
+        FloatVector sumX = FloatVector.zero(SPECIES);
+        FloatVector sumY = FloatVector.zero(SPECIES);
+        float momentumX = 0f, momentumY = 0f;
+
+        // two runs, on either side of i, so no lane ever pairs a node with itself
+        for (int run = 0; run < 2; run++) {
+            int from = run == 0 ? 0 : i + 1;
+            int to = run == 0 ? i : size;
+            int bound = from + SPECIES.loopBound(to - from);
+            int j = from;
+
+            for (; j < bound; j += SPECIES.length()) {
+                FloatVector a = xi.sub(FloatVector.fromArray(SPECIES, x, j));
+                FloatVector b = yi.sub(FloatVector.fromArray(SPECIES, y, j));
+                FloatVector distance = a.mul(a).add(b.mul(b)).sqrt();
+                FloatVector inverseDistance = FloatVector.fromArray(SPECIES, charge, j).mul(charge[i]).div(distance);
+                sumX = sumX.add(a.div(distance).mul(inverseDistance));
+                sumY = sumY.add(b.div(distance).mul(inverseDistance));
+            }
+
+            for (; j < to; j++) {
+                float a = x[i] - x[j];
+                float b = y[i] - y[j];
+                float distance = (float) Math.sqrt(a * a + b * b);
+                float inverseDistance = charge[j] * charge[i] / distance;
+                momentumX += a / distance * inverseDistance;
+                momentumY += b / distance * inverseDistance;
+            }
+        }
+
+        forceX[i] = sumX.reduceLanes(VectorOperators.ADD) + momentumX;
+        forceY[i] = sumY.reduceLanes(VectorOperators.ADD) + momentumY;
+    }
+
+    public void attraction(int i, int[] neighbors, int count, float springConstant, float[] x, float[] y, float[] forceX, float[] forceY) {
+        FloatVector xi = FloatVector.broadcast(SPECIES, x[i]);
+        FloatVector yi = FloatVector.broadcast(SPECIES, y[i]);
+        FloatVector sumX = FloatVector.zero(SPECIES);
+        FloatVector sumY = FloatVector.zero(SPECIES);
+        float momentumX = 0f, momentumY = 0f;
+        int bound = SPECIES.loopBound(count);
+        int n = 0;
+
+        for (; n < bound; n += SPECIES.length()) {
+            sumX = sumX.add(FloatVector.fromArray(SPECIES, x, 0, neighbors, n).sub(xi).mul(springConstant));
+            sumY = sumY.add(FloatVector.fromArray(SPECIES, y, 0, neighbors, n).sub(yi).mul(springConstant));
+        }
+
+        for (; n < count; n++) {
+            int j = neighbors[n];
+            momentumX += springConstant * (x[j] - x[i]);
+            momentumY += springConstant * (y[j] - y[i]);
+        }
+
+        forceX[i] += sumX.reduceLanes(VectorOperators.ADD) + momentumX;
+        forceY[i] += sumY.reduceLanes(VectorOperators.ADD) + momentumY;
+    }
+}
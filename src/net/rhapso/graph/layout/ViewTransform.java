@@ -0,0 +1,61 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph.layout;
+
+/**
+ * Maps the coordinates a layout engine works with to the coordinates its
+ * points report, shifting each axis and dividing it by an extent, so the
+ * fitted box maps exactly onto [0, 1]. Starts as the identity.
+ */
+class ViewTransform {
+    private float originX = 0f, originY = 0f;
+    private float extentX = 1f, extentY = 1f;
+
+    public float x(float x) {
+        return (x - originX) / extentX;
+    }
+
+    public float y(float y) {
+        return (y - originY) / extentY;
+    }
+
+    public float inverseX(float x) {
+        return x * extentX + originX;
+    }
+
+    public float inverseY(float y) {
+        return y * extentY + originY;
+    }
+
+    /**
+     * Maps the given box onto the unit square. A flat axis is only shifted.
+     */
+    public void fit(float minX, float minY, float maxX, float maxY) {
+        originX = minX;
+        originY = minY;
+        extentX = maxX > minX ? maxX - minX : 1f;
+        extentY = maxY > minY ? maxY - minY : 1f;
+    }
+}
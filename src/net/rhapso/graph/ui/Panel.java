@@ -25,19 +25,33 @@
 package net.rhapso.graph.ui;
 
 import net.rhapso.graph.AdjacencyList;
-import net.rhapso.graph.Edge;
 import net.rhapso.graph.Graph;
+import net.rhapso.graph.layout.Convergence;
+import net.rhapso.graph.layout.Layout;
+import net.rhapso.graph.layout.LayoutJob;
+import net.rhapso.graph.layout.LayoutService;
+import net.rhapso.graph.layout.LayoutSnapshot;
 import net.rhapso.graph.layout.LayoutWeaver;
-import net.rhapso.graph.layout.Point;
-import net.rhapso.graph.layout.Vector;
+import net.rhapso.graph.layout.SnapshotListener;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 
 public class Panel {
-    private LayoutWeaver<String> layoutWeaver;
+    private Layout<String> layout;
+    // already normalized
+    private volatile LayoutSnapshot<String> snapshot;
+    private final LayoutService layoutService = new LayoutService();
+    private LayoutJob<String> job;
+    // identifies the job whose snapshots are shown; stopped jobs stay silent
+    private volatile Object current;
+    // completes once no job touches the current layout any more
+    private CompletableFuture<?> layoutIdle = CompletableFuture.completedFuture(null);
     private Graph<String> graph;
     private Canvas canvas;
     private JTextField springField, dampingField, targetEnergyField;
@@ -71,7 +85,8 @@ public class Panel {
 
     public Panel(Graph<String> graph) {
         this.graph = graph;
-        layoutWeaver = new LayoutWeaver<String>(graph);
+        layout = newLayout();
+        snapshot = LayoutSnapshot.of(layout).normalized();
         canvas = makeCanvas();
         springField = new JTextField(".2", 5);
         dampingField = new JTextField(".15", 5);
@@ -88,7 +103,10 @@ public class Panel {
         Box box = new Box(BoxLayout.Y_AXIS);
         box.add(makeButton("reset", new ButtonHandler() {
             public void onClick() {
-                layoutWeaver = new LayoutWeaver<String>(graph);
+                stopJob();
+                layout = newLayout();
+                layoutIdle = CompletableFuture.completedFuture(null);
+                snapshot = LayoutSnapshot.of(layout).normalized();
                 canvas.repaint();
             }
         }));
@@ -101,12 +119,41 @@ public class Panel {
 
                 System.out.println("spring = " + spring);
                 System.out.println("damping = " + damping);
-                int count = 0;
-                for (double energy = layoutWeaver.convergeOnce(damping,  spring); energy > targetEnergy; energy = layoutWeaver.convergeOnce(damping,  spring)) {
-                    count++;
+                final Convergence convergence = new Convergence(damping, spring)
+                        .targetEnergy(targetEnergy)
+                        .timeBudget(5, TimeUnit.SECONDS);
+                stopJob();
+                final Layout<String> target = layout;
+                final CompletableFuture<Void> done = new CompletableFuture<Void>();
+                CompletableFuture<?> previous = layoutIdle;
+                layoutIdle = done;
+                previous.whenComplete(new BiConsumer<Object, Throwable>() {
+                    public void accept(Object ignored, Throwable error) {
+                        SwingUtilities.invokeLater(new Runnable() {
+                            public void run() {
+                                if (target != layout || layoutIdle != done) {
+                                    // reset or converged again while the previous job was stopping
+                                    done.complete(null);
+                                    return;
+                                }
+                                startJob(convergence, done);
+                            }
+                        });
+                    }
+                });
+            }
+        }));
+
+        box.add(makeButton("pause", new ButtonHandler() {
+            public void onClick() {
+                if (job == null) {
+                    return;
+                }
+                if (job.isPaused()) {
+                    job.resume();
+                } else {
+                    job.pause();
                 }
-                System.out.println("count = " + count);
-                canvas.repaint();
             }
         }));
 
@@ -118,6 +165,56 @@ public class Panel {
         frame.setVisible(true);
     }
 
+    /**
+     * Starts converging the current layout; {@code done} completes when the job has finished with it.
+     */
+    private void startJob(Convergence convergence, final CompletableFuture<Void> done) {
+        final Object token = new Object();
+        current = token;
+        job = layoutService.submit(layout, convergence, 40, TimeUnit.MILLISECONDS, new SnapshotListener<String>() {
+            public void onSnapshot(LayoutSnapshot<String> latest) {
+                if (current == token) {
+                    show(latest);
+                }
+            }
+        });
+        job.result().whenComplete(new BiConsumer<LayoutSnapshot<String>, Throwable>() {
+            public void accept(LayoutSnapshot<String> result, Throwable error) {
+                if (result != null && current == token) {
+                    show(result);
+                }
+                done.complete(null);
+            }
+        });
+    }
+
+    /**
+     * Cancels the running job without waiting for it; the next job only starts once {@link #layoutIdle} completes.
+     */
+    private void stopJob() {
+        if (job != null) {
+            job.cancel();
+            job = null;
+            current = null;
+        }
+    }
+
+    /**
+     * Normalizes once per published snapshot, so repaints only read coordinates.
+     */
+    private void show(LayoutSnapshot<String> latest) {
+        snapshot = latest.normalized();
+        SwingUtilities.invokeLater(new Runnable() {
+            public void run() {
+                canvas.repaint();
+            }
+        });
+    }
+
+    private Layout<String> newLayout() {
+        return new LayoutWeaver<String>(graph);
+    }
+
     private Box makeLabeledInput(String text, JTextField textField) {
         Box springBox = new Box(BoxLayout.X_AXIS);
         springBox.add(new JLabel(text));
@@ -133,23 +230,21 @@ public class Panel {
                 ((Graphics2D)graphics).setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
                 graphics.setColor(Color.white);
                 graphics.fillRect(50, 50, 400, 400);
-                layoutWeaver.normalize();
+                LayoutSnapshot<String> view = snapshot;
 
-                for (Point<String> point : layoutWeaver.nodes()) {
+                for (int i = 0; i < view.size(); i++) {
+                    int x = screen(view.getX(i));
+                    int y = screen(view.getY(i));
                     graphics.setColor(Color.pink);
-                    point = translate(point);
-                    int x = (int) point.getX();
-                    int y = (int) point.getY();
                     graphics.fillOval(x, y, 10, 10);
                     graphics.setColor(Color.black);
-                    graphics.drawString(point.getT(), x, y);
+                    graphics.drawString(view.node(i), x, y);
                 }
 
-                for (Edge<Point<String>> edge : layoutWeaver.edges()) {
-                    Point<String> from = translate(edge.getFrom());
-                    Point<String> to = translate(edge.getTo());
-                    graphics.setColor(Color.black);
-                    graphics.drawLine((int)from.getX(), (int)from.getY(), (int)to.getX(), (int)to.getY());
+                graphics.setColor(Color.black);
+                for (int e = 0; e < view.edgeCount(); e++) {
+                    int i = view.edgeFrom(e), j = view.edgeTo(e);
+                    graphics.drawLine(screen(view.getX(i)), screen(view.getY(i)), screen(view.getX(j)), screen(view.getY(j)));
                 }
             }
         };
@@ -185,10 +280,7 @@ public class Panel {
     private static interface ButtonHandler {
         public void onClick();
     }
-    private <T> Point<T> translate(Point<T> point) {
-        Point<T> newPoint = new Point<T>(point);
-        newPoint.dilate(new Vector(300f, 300f));
-        newPoint.move(new Vector(75f, 75f));
-        return newPoint;
+    private static int screen(float coordinate) {
+        return (int) (coordinate * 300f + 75f);
     }
 }
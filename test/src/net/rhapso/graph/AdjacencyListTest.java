@@ -31,9 +31,14 @@ import com.google.common.collect.Sets;
 import junit.framework.TestCase;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 public class AdjacencyListTest extends TestCase {
     public void testSubgraphs() throws Exception {
@@ -99,6 +104,147 @@ public class AdjacencyListTest extends TestCase {
         assertEquals(3, graph.neighbors("center"));
     }
 
+    public void testComponentsFollowAddedEdges() throws Exception {
+        AdjacencyList<String> graph = makeGraph();
+        assertEquals(2, graph.componentCount());
+        assertEquals(4, graph.componentSize("bar"));
+        assertEquals(graph.componentOf("bar"), graph.componentOf("panda"));
+        assertFalse(graph.componentOf("bar") == graph.componentOf("silly"));
+        assertEquals(-1, graph.componentOf("nowhere"));
+
+        List<Graph<String>> before = graph.subgraphs();
+        Graph<String> built = before.get(0);
+        graph.addEdge("foo", "bar");
+        assertSame(built, before.get(0));
+        assertEquals(6, before.get(0).size() + before.get(1).size());
+
+        before = graph.subgraphs();
+        built = before.get(0);
+        graph.addEdge("bafoon", "panda");
+        assertSame(built, before.get(0));
+        assertEquals(1, graph.componentCount());
+        assertEquals(6, graph.componentSize("silly"));
+        assertEquals(graph.componentOf("bar"), graph.componentOf("silly"));
+        try {
+            before.get(1);
+            fail();
+        } catch (ConcurrentModificationException e) {
+        }
+        assertEquals(6, graph.subgraphs().get(0).size());
+    }
+
+    public void testAddEdges() throws Exception {
+        List<Edge<Integer>> edges = new ArrayList<Edge<Integer>>();
+        AdjacencyList<Integer> oneByOne = new AdjacencyList<Integer>();
+        for (int i = 0; i < 200000; i++) {
+            Edge<Integer> edge = new Edge<Integer>(i % 1000, (i * 7) % 1300);
+            edges.add(edge);
+            oneByOne.addEdge(edge);
+        }
+        AdjacencyList<Integer> bulk = new AdjacencyList<Integer>(1300);
+        bulk.addEdges(edges);
+
+        assertEquals(oneByOne.size(), bulk.size());
+        assertEquals(Sets.newHashSet(oneByOne.edges()), Sets.newHashSet(bulk.edges()));
+        assertEquals(oneByOne.componentCount(), bulk.componentCount());
+        for (int node = 0; node < 1300; node++) {
+            assertEquals(oneByOne.neighbors(node), bulk.neighbors(node));
+        }
+    }
+
+    public void testExploresLongPaths() throws Exception {
+        AdjacencyList<Integer> graph = new AdjacencyList<Integer>();
+        for (int i = 0; i < 100000; i++) {
+            graph.addEdge(i, i + 1);
+        }
+        assertEquals(1, graph.subgraphs().size());
+        assertEquals(100001, graph.subgraphs().get(0).size());
+    }
+
+    public void testVicinity() throws Exception {
+        AdjacencyList<String> graph = makeGraph();
+        graph.addEdge("panda", "bamboo");
+        graph.addEdge("bamboo", "forest");
+
+        Graph<String> vicinity = graph.vicinity("foo", 2);
+        assertEquals("bamboo bar baz foo panda", toString(vicinity.nodes()));
+        assertTrue(vicinity.hasEdge("panda", "bamboo"));
+        assertFalse(vicinity.hasEdge("bamboo", "panda"));
+        assertEquals(0, graph.vicinity("nowhere", 2).size());
+    }
+
+    public void testNullNode() throws Exception {
+        AdjacencyList<String> graph = new AdjacencyList<String>();
+        graph.addEdge("foo", null);
+        graph.addEdge(null, "bar");
+
+        assertEquals(3, graph.size());
+        assertTrue(graph.hasEdge("foo", null));
+        assertEquals(2, graph.neighbors(null));
+        assertEquals(1, graph.componentCount());
+        assertEquals(Arrays.asList("foo", null, "bar"), graph.shortestPath("foo", "bar"));
+    }
+
+    public void testDegrees() throws Exception {
+        AdjacencyList<String> graph = makeGraph();
+        graph.addEdge("foo", "bar");
+        graph.addEdge("bar", "foo");
+        graph.addEdge("baz", "baz");
+
+        assertEquals(3, graph.outDegree("foo"));
+        assertEquals(1, graph.inDegree("foo"));
+        assertEquals(3, graph.neighbors("foo"));
+        assertEquals(1, graph.outDegree("baz"));
+        assertEquals(2, graph.inDegree("baz"));
+        assertEquals(2, graph.neighbors("baz"));
+        assertEquals(0, graph.neighbors("nowhere"));
+
+        assertEquals(Arrays.asList("foo"), graph.hubs(1));
+        assertEquals(3, graph.maxDegree(AdjacencyList.Direction.UNDIRECTED));
+        assertTrue(Arrays.equals(new int[]{0, 4, 1, 1}, graph.degreeHistogram(AdjacencyList.Direction.UNDIRECTED)));
+        assertTrue(Arrays.equals(new int[]{2, 3, 0, 1}, graph.degreeHistogram(AdjacencyList.Direction.OUT)));
+        assertEquals(2, graph.inDegree(graph.hubs(1, AdjacencyList.Direction.IN).get(0)));
+    }
+
+    public void testDegreesMatchAdjacency() throws Exception {
+        Random random = new Random(42);
+        List<Edge<Integer>> edges = new ArrayList<Edge<Integer>>();
+        for (int i = 0; i < 2000; i++) {
+            edges.add(new Edge<Integer>(random.nextInt(200), random.nextInt(200)));
+        }
+        AdjacencyList<Integer> incremental = new AdjacencyList<Integer>();
+        for (Edge<Integer> edge : edges) {
+            incremental.addEdge(edge);
+        }
+        AdjacencyList<Integer> batched = new AdjacencyList<Integer>();
+        batched.addEdges(edges);
+
+        for (AdjacencyList<Integer> graph : Arrays.asList(incremental, batched)) {
+            Map<Integer, Integer> in = new HashMap<Integer, Integer>();
+            for (Edge<Integer> edge : graph.edges()) {
+                Integer count = in.get(edge.getTo());
+                in.put(edge.getTo(), count == null ? 1 : count + 1);
+            }
+            for (Integer node : graph.nodes()) {
+                assertEquals(Iterables.size(graph.children(node)), graph.outDegree(node));
+                assertEquals(in.containsKey(node) ? (int) in.get(node) : 0, graph.inDegree(node));
+            }
+
+            List<Integer> hubs = graph.hubs(10);
+            assertEquals(10, hubs.size());
+            for (int k = 1; k < hubs.size(); k++) {
+                assertTrue(graph.neighbors(hubs.get(k - 1)) >= graph.neighbors(hubs.get(k)));
+            }
+            int[] histogram = graph.degreeHistogram(AdjacencyList.Direction.UNDIRECTED);
+            int nodes = 0;
+            for (int count : histogram) {
+                nodes += count;
+            }
+            assertEquals(graph.size(), nodes);
+            assertEquals(graph.maxDegree(AdjacencyList.Direction.UNDIRECTED), graph.neighbors(hubs.get(0)));
+        }
+    }
+
     private String toString(Iterable<String> nodes) {
         List<String> allNodes = Lists.newArrayList(nodes);
         Collections.sort(allNodes);
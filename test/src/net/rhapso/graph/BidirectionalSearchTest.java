@@ -0,0 +1,78 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class BidirectionalSearchTest extends TestCase {
+    public void testMatchesBreadthFirstDepths() throws Exception {
+        AdjacencyList<Integer> graph = new AdjacencyList<Integer>();
+        Random random = new Random(17);
+        for (int i = 0; i < 600; i++) {
+            graph.addEdge(random.nextInt(400), random.nextInt(400));
+        }
+        CompactGraph<Integer> compact = CompactGraph.of(graph);
+        ParallelBreadthFirst<Integer> search = new ParallelBreadthFirst<Integer>(compact);
+
+        for (int source = 0; source < 400; source += 37) {
+            if (compact.indexOf(source) < 0) {
+                continue;
+            }
+            int[] depths = search.depths(source, Integer.MAX_VALUE);
+            for (int target = 0; target < 400; target += 3) {
+                int id = compact.indexOf(target);
+                if (id < 0) {
+                    continue;
+                }
+                assertEquals(depths[id], graph.hopDistance(source, target));
+                assertEquals(depths[id], compact.hopDistance(source, target));
+                assertEquals(depths[id] > 3 ? -1 : depths[id], graph.hopDistance(source, target, 3));
+
+                List<Integer> path = graph.shortestPath(source, target);
+                assertEquals(depths[id] + 1, path.size());
+                for (int k = 1; k < path.size(); k++) {
+                    assertTrue(graph.hasEdge(path.get(k - 1), path.get(k)) || graph.hasEdge(path.get(k), path.get(k - 1)));
+                }
+            }
+        }
+    }
+
+    public void testEnds() throws Exception {
+        AdjacencyList<String> graph = new AdjacencyList<String>();
+        graph.addEdge("foo", "bar");
+        graph.addEdge("baz", "bar");
+        graph.addEdge("silly", "bafoon");
+
+        assertEquals(Arrays.asList("foo", "bar", "baz"), graph.shortestPath("foo", "baz"));
+        assertEquals(0, graph.hopDistance("foo", "foo"));
+        assertEquals(-1, graph.hopDistance("foo", "silly"));
+        assertEquals(-1, graph.hopDistance("foo", "nowhere"));
+        assertTrue(graph.shortestPath("foo", "baz", 1).isEmpty());
+    }
+}
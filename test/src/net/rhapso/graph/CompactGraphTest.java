@@ -0,0 +1,121 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Sets;
+import junit.framework.TestCase;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class CompactGraphTest extends TestCase {
+    public void testMatchesAdjacencyList() throws Exception {
+        AdjacencyList<Integer> list = new AdjacencyList<Integer>();
+        Random random = new Random(3);
+        for (int i = 0; i < 500; i++) {
+            list.addEdge(random.nextInt(100), random.nextInt(100));
+        }
+        CompactGraph<Integer> graph = CompactGraph.of(list);
+
+        assertEquals(list.size(), graph.size());
+        assertEquals(Sets.newHashSet(list.nodes()), Sets.newHashSet(graph.nodes()));
+        assertEquals(Sets.newHashSet(list.edges()), Sets.newHashSet(graph.edges()));
+        assertEquals(Iterables.size(list.edges()), graph.edgeCount());
+        for (int node = 0; node < 100; node++) {
+            assertEquals(Sets.newHashSet(list.children(node)), Sets.newHashSet(graph.children(node)));
+            if (graph.indexOf(node) >= 0) {
+                assertEquals(list.neighbors(node), graph.neighbors(node));
+            }
+            for (int other = 0; other < 100; other++) {
+                assertEquals(list.hasEdge(node, other), graph.hasEdge(node, other));
+            }
+        }
+    }
+
+    public void testDuplicatesAndLoops() throws Exception {
+        CompactGraph<String> graph = new CompactGraph.Builder<String>()
+                .addEdge("foo", "bar")
+                .addEdge("foo", "bar")
+                .addEdge("bar", "foo")
+                .addEdge("foo", "foo")
+                .build();
+        assertEquals(3, graph.edgeCount());
+        assertEquals(2, graph.neighbors("foo"));
+        assertEquals(1, graph.neighbors("bar"));
+        assertEquals(0, graph.neighbors("panda"));
+        assertFalse(graph.children("panda").iterator().hasNext());
+    }
+
+    public void testSubgraphs() throws Exception {
+        AdjacencyList<String> list = new AdjacencyList<String>();
+        list.addEdge("2004", "2008");
+        list.addEdge("2005", "2008");
+        list.addEdge("2008", "2009");
+        list.addEdge("2008", "2010");
+        list.addEdge("2010", "2011");
+        list.addEdge("1000", "1001");
+        list.addEdge("1001", "1002");
+
+        List<Graph<String>> subgraphs = CompactGraph.of(list.edges()).subgraphs();
+        assertEquals(2, subgraphs.size());
+        assertEquals(9, subgraphs.get(0).size() + subgraphs.get(1).size());
+        assertEquals(7, Iterables.size(subgraphs.get(0).edges()) + Iterables.size(subgraphs.get(1).edges()));
+    }
+
+    public void testVicinity() throws Exception {
+        CompactGraph.Builder<Integer> builder = new CompactGraph.Builder<Integer>();
+        for (int i = 0; i < 10; i++) {
+            builder.addEdge(i, i + 1);
+        }
+        CompactGraph<Integer> graph = builder.build();
+
+        CompactGraph<Integer> vicinity = graph.vicinity(5, 2);
+        assertEquals(Sets.newHashSet(3, 4, 5, 6, 7), Sets.newHashSet(vicinity.nodes()));
+        assertTrue(vicinity.hasEdge(3, 4));
+        assertFalse(vicinity.hasEdge(4, 3));
+        assertEquals(0, graph.vicinity(42, 2).size());
+    }
+
+    public void testExploreOffersEachPairOnceLikeAdjacencyList() throws Exception {
+        Graph.NodeFilter<Integer> filter = new Graph.NodeFilter<Integer>() {
+            public boolean accept(Edge<Integer> edge, int currentDepth, Graph<Integer> currentGraph) {
+                return currentDepth <= 3 && (currentDepth != 2 || (edge.getFrom() + edge.getTo()) % 2 == 0);
+            }
+        };
+        Random random = new Random(17);
+        for (int round = 0; round < 20; round++) {
+            AdjacencyList<Integer> list = new AdjacencyList<Integer>();
+            for (int i = 0; i < 120; i++) {
+                list.addEdge(random.nextInt(60), random.nextInt(60));
+            }
+            Integer start = list.nodes().iterator().next();
+            Set<Edge<Integer>> expected = Sets.newHashSet(list.explore(start, filter).edges());
+            assertEquals(expected, Sets.newHashSet(CompactGraph.of(list).explore(start, filter).edges()));
+            assertEquals(expected, Sets.newHashSet(OffHeapGraph.of(list).explore(start, filter).edges()));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph;
+
+import com.google.common.collect.Sets;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ConcurrentAdjacencyListTest extends TestCase {
+    public void testConcurrentIngest() throws Exception {
+        final ConcurrentAdjacencyList<Integer> graph = new ConcurrentAdjacencyList<Integer>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Callable<Void>> producers = new ArrayList<Callable<Void>>();
+        for (int t = 0; t < 4; t++) {
+            final int offset = t;
+            producers.add(new Callable<Void>() {
+                public Void call() throws Exception {
+                    for (int i = offset; i < 20000; i += 4) {
+                        graph.addEdge(i % 500, (i * 31) % 500);
+                        assertTrue(graph.hasEdge(i % 500, (i * 31) % 500));
+                    }
+                    return null;
+                }
+            });
+        }
+        for (Future<Void> future : executor.invokeAll(producers)) {
+            future.get();
+        }
+        executor.shutdown();
+
+        AdjacencyList<Integer> expected = new AdjacencyList<Integer>();
+        for (int i = 0; i < 20000; i++) {
+            expected.addEdge(i % 500, (i * 31) % 500);
+        }
+        assertEquals(expected.size(), graph.size());
+        assertEquals(Sets.newHashSet(expected.edges()), Sets.newHashSet(graph.edges()));
+        for (int node = 0; node < 500; node++) {
+            assertEquals(expected.neighbors(node), graph.neighbors(node));
+        }
+        assertEquals(expected.subgraphs().size(), graph.subgraphs().size());
+    }
+
+    public void testVicinity() throws Exception {
+        ConcurrentAdjacencyList<String> graph = new ConcurrentAdjacencyList<String>();
+        graph.addEdge("foo", "bar");
+        graph.addEdge("bar", "baz");
+        graph.addEdge("baz", "panda");
+        assertEquals(Sets.newHashSet("foo", "bar", "baz"), Sets.newHashSet(graph.vicinity("foo", 2).nodes()));
+        assertEquals(0, graph.vicinity("nowhere", 2).size());
+    }
+
+    public void testRejectsNullNodes() throws Exception {
+        ConcurrentAdjacencyList<String> graph = new ConcurrentAdjacencyList<String>();
+        try {
+            graph.addEdge("foo", null);
+            fail();
+        } catch (NullPointerException e) {
+        }
+        assertEquals(0, graph.size());
+    }
+}
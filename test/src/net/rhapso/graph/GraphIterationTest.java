@@ -0,0 +1,171 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph;
+
+import com.google.common.collect.Sets;
+import junit.framework.TestCase;
+import net.rhapso.graph.layout.LayoutWeaver;
+import net.rhapso.graph.layout.Point;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+public class GraphIterationTest extends TestCase {
+    public void testEveryImplementationAgrees() throws Exception {
+        AdjacencyList<String> list = new AdjacencyList<String>();
+        list.addEdge("foo", "bar");
+        list.addEdge("foo", "baz");
+        list.addEdge("bar", "foo");
+        list.addEdge("baz", "baz");
+        list.addEdge("silly", "bafoon");
+
+        ConcurrentAdjacencyList<String> concurrent = new ConcurrentAdjacencyList<String>();
+        for (Edge<String> edge : list.edges()) {
+            concurrent.addEdge(edge);
+        }
+
+        assertIteratesLikeEdges(list);
+        assertIteratesLikeEdges(concurrent);
+        assertIteratesLikeEdges(CompactGraph.of(list));
+        assertIteratesLikeEdges(OffHeapGraph.of(list));
+        assertIteratesLikeEdges(new Basic<String>(list));
+        assertEquals(Arrays.asList("bar", "foo", "baz"), new Basic<String>(list).shortestPath("bar", "baz"));
+        assertEquals(-1, new Basic<String>(list).hopDistance("foo", "silly"));
+    }
+
+    public void testLayoutWeaver() throws Exception {
+        AdjacencyList<String> list = new AdjacencyList<String>();
+        list.addEdge("foo", "bar");
+        list.addEdge("bar", "baz");
+        LayoutWeaver<String> weaver = new LayoutWeaver<String>(list);
+        weaver.addEdge("baz", "panda");
+
+        assertIteratesLikeEdges(weaver);
+        final Set<String> neighbors = new HashSet<String>();
+        weaver.forEachNeighbor(weaver.get("baz"), new Consumer<Point<String>>() {
+            public void accept(Point<String> point) {
+                neighbors.add(point.getT());
+            }
+        });
+        assertEquals(Sets.newHashSet("bar", "panda"), neighbors);
+
+        // grown behind the layout's back: the new edge has no points and is skipped
+        list.addEdge("panda", "bamboo");
+        final int[] edges = new int[1];
+        weaver.forEachEdge(new BiConsumer<Point<String>, Point<String>>() {
+            public void accept(Point<String> from, Point<String> to) {
+                edges[0]++;
+            }
+        });
+        assertEquals(3, edges[0]);
+        EdgeCursor<Point<String>> cursor = weaver.edgeCursor();
+        int scanned = 0;
+        while (cursor.next()) {
+            assertNotNull(cursor.to());
+            scanned++;
+        }
+        assertEquals(3, scanned);
+    }
+
+    private <T> void assertIteratesLikeEdges(Graph<T> graph) {
+        Set<Edge<T>> expected = Sets.newHashSet(graph.edges());
+
+        final Set<Edge<T>> visited = new HashSet<Edge<T>>();
+        graph.forEachEdge(new BiConsumer<T, T>() {
+            public void accept(T from, T to) {
+                assertTrue(visited.add(new Edge<T>(from, to)));
+            }
+        });
+        assertEquals(expected, visited);
+
+        EdgeCursor<T> cursor = graph.edgeCursor();
+        for (int pass = 0; pass < 2; pass++) {
+            Set<Edge<T>> scanned = new HashSet<Edge<T>>();
+            while (cursor.next()) {
+                assertTrue(scanned.add(new Edge<T>(cursor.from(), cursor.to())));
+            }
+            assertFalse(cursor.next());
+            assertEquals(expected, scanned);
+            cursor.reset();
+        }
+
+        for (T node : graph.nodes()) {
+            final int[] count = new int[1];
+            graph.forEachNeighbor(node, new Consumer<T>() {
+                public void accept(T neighbor) {
+                    count[0]++;
+                }
+            });
+            assertEquals(graph.neighbors(node), count[0]);
+        }
+    }
+
+    /**
+     * Only what Graph requires, so the default methods are the ones exercised.
+     */
+    private static class Basic<T> implements Graph<T> {
+        private final AdjacencyList<T> graph;
+
+        Basic(AdjacencyList<T> graph) {
+            this.graph = graph;
+        }
+
+        public int size() {
+            return graph.size();
+        }
+
+        public Iterable<T> children(T tee) {
+            return graph.children(tee);
+        }
+
+        public Iterable<T> nodes() {
+            return graph.nodes();
+        }
+
+        public Iterable<Edge<T>> edges() {
+            return graph.edges();
+        }
+
+        public boolean hasEdge(T from, T to) {
+            return graph.hasEdge(from, to);
+        }
+
+        public List<Graph<T>> subgraphs() {
+            return graph.subgraphs();
+        }
+
+        public int neighbors(T tee) {
+            return graph.neighbors(tee);
+        }
+
+        public Graph<T> explore(T from, NodeFilter<T> nodeFilter) {
+            return graph.explore(from, nodeFilter);
+        }
+    }
+}
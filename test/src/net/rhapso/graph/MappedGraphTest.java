@@ -0,0 +1,94 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph;
+
+import com.google.common.collect.Sets;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+public class MappedGraphTest extends TestCase {
+    private File file;
+
+    @Override
+    protected void setUp() throws Exception {
+        file = File.createTempFile("graph", ".bin");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        file.delete();
+    }
+
+    public void testServesTheWrittenGraph() throws Exception {
+        AdjacencyList<String> list = new AdjacencyList<String>();
+        Random random = new Random(5);
+        for (int i = 0; i < 400; i++) {
+            list.addEdge("n" + random.nextInt(80), "n" + random.nextInt(80));
+        }
+        MappedGraph.write(list, NodeCodecs.strings(), file);
+        MappedGraph<String> graph = MappedGraph.open(file, NodeCodecs.strings());
+
+        assertEquals(list.size(), graph.size());
+        assertEquals(Sets.newHashSet(list.nodes()), Sets.newHashSet(graph.nodes()));
+        assertEquals(Sets.newHashSet(list.edges()), Sets.newHashSet(graph.edges()));
+        for (int i = 0; i < 90; i++) {
+            String node = "n" + i;
+            assertEquals(Sets.newHashSet(list.children(node)), Sets.newHashSet(graph.children(node)));
+            assertEquals(list.neighbors(node), graph.neighbors(node));
+            for (int j = 0; j < 90; j++) {
+                assertEquals(list.hasEdge(node, "n" + j), graph.hasEdge(node, "n" + j));
+            }
+        }
+        assertEquals(list.subgraphs().size(), graph.subgraphs().size());
+    }
+
+    public void testIntegerNodes() throws Exception {
+        CompactGraph.Builder<Integer> builder = new CompactGraph.Builder<Integer>();
+        for (int i = 0; i < 10; i++) {
+            builder.addEdge(i, i + 1);
+        }
+        MappedGraph.write(builder.build(), NodeCodecs.integers(), file);
+        MappedGraph<Integer> graph = MappedGraph.open(file, NodeCodecs.integers());
+        assertEquals(11, graph.size());
+        assertTrue(graph.hasEdge(3, 4));
+        assertFalse(graph.hasEdge(4, 3));
+        assertEquals(Sets.newHashSet(3, 4, 5, 6, 7), Sets.newHashSet(graph.vicinity(5, 2).nodes()));
+    }
+
+    public void testRejectsOtherFiles() throws Exception {
+        FileOutputStream out = new FileOutputStream(file);
+        out.write("not a graph at all, not even close".getBytes());
+        out.close();
+        try {
+            MappedGraph.open(file, NodeCodecs.strings());
+            fail();
+        } catch (IOException e) {
+        }
+    }
+}
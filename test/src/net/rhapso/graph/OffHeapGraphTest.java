@@ -0,0 +1,98 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Sets;
+import junit.framework.TestCase;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class OffHeapGraphTest extends TestCase {
+    public void testMatchesAdjacencyListWhileGrowing() throws Exception {
+        AdjacencyList<Integer> list = new AdjacencyList<Integer>();
+        OffHeapGraph<Integer> graph = new OffHeapGraph<Integer>();
+        Random random = new Random(11);
+        for (int round = 0; round < 4; round++) {
+            for (int i = 0; i < 2000; i++) {
+                int from = random.nextInt(300), to = random.nextInt(i % 10 == 0 ? 3 : 300);
+                list.addEdge(from, to);
+                graph.addEdge(from, to);
+            }
+
+            assertEquals(list.size(), graph.size());
+            assertEquals(Iterables.size(list.edges()), graph.edgeCount());
+            assertEquals(Sets.newHashSet(list.edges()), Sets.newHashSet(graph.edges()));
+            for (int node = 0; node < 300; node++) {
+                assertEquals(Sets.newHashSet(list.children(node)), Sets.newHashSet(graph.children(node)));
+                assertEquals(list.neighbors(node), graph.neighbors(node));
+                assertEquals(list.hasEdge(node, 1), graph.hasEdge(node, 1));
+            }
+        }
+    }
+
+    public void testConcurrentReadersSeeSettledRows() throws Exception {
+        final AdjacencyList<Integer> list = new AdjacencyList<Integer>();
+        final OffHeapGraph<Integer> graph = new OffHeapGraph<Integer>();
+        Random random = new Random(5);
+        for (int i = 0; i < 20000; i++) {
+            int from = random.nextInt(500), to = random.nextInt(50);
+            list.addEdge(from, to);
+            graph.addEdge(from, to);
+        }
+
+        final AtomicInteger mismatches = new AtomicInteger();
+        Thread[] readers = new Thread[4];
+        for (int t = 0; t < readers.length; t++) {
+            readers[t] = new Thread(new Runnable() {
+                public void run() {
+                    for (int node = 0; node < 500; node++) {
+                        if (list.neighbors(node) != graph.neighbors(node)) {
+                            mismatches.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            readers[t].start();
+        }
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertEquals(0, mismatches.get());
+        assertEquals(Iterables.size(list.edges()), graph.edgeCount());
+    }
+
+    public void testCopiesAnyGraph() throws Exception {
+        AdjacencyList<String> list = new AdjacencyList<String>();
+        list.addEdge("foo", "bar");
+        list.addEdge("bar", "baz");
+        list.addEdge("silly", "bafoon");
+        OffHeapGraph<String> graph = OffHeapGraph.of(list);
+        assertEquals(5, graph.size());
+        assertEquals(2, graph.subgraphs().size());
+        assertEquals(Sets.newHashSet("foo", "bar", "baz"), Sets.newHashSet(graph.vicinity("foo", 2).nodes()));
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph;
+
+import com.google.common.collect.Sets;
+import junit.framework.TestCase;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelBreadthFirstTest extends TestCase {
+    public void testDepthsMatchSequentialSearch() throws Exception {
+        CompactGraph<Integer> graph = hubs(20000, 7);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ParallelBreadthFirst<Integer> search = new ParallelBreadthFirst<Integer>(graph, pool);
+            for (int source : new int[]{0, 1, 5000, 19999}) {
+                assertTrue(Arrays.equals(sequential(graph, graph.indexOf(source), Integer.MAX_VALUE), search.depths(source, Integer.MAX_VALUE)));
+                assertTrue(Arrays.equals(sequential(graph, graph.indexOf(source), 2), search.depths(source, 2)));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public void testVicinityMatchesExplore() throws Exception {
+        CompactGraph<Integer> graph = hubs(3000, 3);
+        ParallelBreadthFirst<Integer> search = new ParallelBreadthFirst<Integer>(graph);
+        for (int degrees = 1; degrees <= 3; degrees++) {
+            assertEquals(Sets.newHashSet(graph.vicinity(42, degrees).edges()), Sets.newHashSet(search.vicinity(42, degrees).edges()));
+        }
+        assertEquals(0, search.vicinity(-1, 3).size());
+    }
+
+    public void testReusedBuffersFollowAGrowingGraph() throws Exception {
+        OffHeapGraph<Integer> graph = new OffHeapGraph<Integer>();
+        graph.addEdge(0, 1);
+        graph.addEdge(1, 2);
+        ParallelBreadthFirst<Integer> search = new ParallelBreadthFirst<Integer>(graph);
+        assertTrue(Arrays.equals(new int[]{0, 1, 2}, search.depths(0, Integer.MAX_VALUE)));
+        assertTrue(Arrays.equals(new int[]{2, 1, 0}, search.depths(2, Integer.MAX_VALUE)));
+        for (int i = 3; i < 200; i++) {
+            graph.addEdge(i - 1, i);
+        }
+        graph.settleAll();
+        int[] depths = search.depths(199, 10);
+        assertEquals(200, depths.length);
+        assertTrue(Arrays.equals(sequential(graph, graph.indexOf(199), 10), depths));
+        assertTrue(Arrays.equals(sequential(graph, graph.indexOf(0), 1), search.depths(0, 1)));
+    }
+
+    /**
+     * Preferential attachment, so a few hubs collect most edges.
+     */
+    private CompactGraph<Integer> hubs(int size, long seed) {
+        Random random = new Random(seed);
+        int[] ends = new int[size * 4];
+        int count = 0;
+        CompactGraph.Builder<Integer> builder = new CompactGraph.Builder<Integer>(size, size * 2);
+        builder.addEdge(0, 1);
+        ends[count++] = 0;
+        ends[count++] = 1;
+        for (int i = 2; i < size; i++) {
+            for (int k = 0; k < 2; k++) {
+                int target = ends[random.nextInt(count)];
+                builder.addEdge(i, target);
+                ends[count++] = i;
+                ends[count++] = target;
+            }
+        }
+        return builder.build();
+    }
+
+    private int[] sequential(IndexedGraph<Integer> graph, int source, int maxDepth) {
+        int[] depth = new int[graph.size()];
+        Arrays.fill(depth, -1);
+        depth[source] = 0;
+        ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+        queue.add(source);
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            if (depth[u] == maxDepth) {
+                continue;
+            }
+            for (int n = 0; n < graph.neighborCount(u); n++) {
+                int v = graph.neighbor(u, n);
+                if (depth[v] < 0) {
+                    depth[v] = depth[u] + 1;
+                    queue.add(v);
+                }
+            }
+        }
+        return depth;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph;
+
+import com.google.common.collect.Sets;
+import junit.framework.TestCase;
+
+public class VicinityCacheTest extends TestCase {
+    public void testRepeatedQueriesHit() throws Exception {
+        VicinityCache<Integer> cache = new VicinityCache<Integer>(path(10), 1000);
+        Graph<Integer> first = cache.vicinity(5, 2);
+        assertSame(first, cache.vicinity(5, 2));
+        assertEquals(Sets.newHashSet(3, 4, 5, 6, 7), Sets.newHashSet(first.nodes()));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(.5d, cache.getHitRate());
+    }
+
+    public void testOnlyChangedNeighborhoodsAreDropped() throws Exception {
+        VicinityCache<Integer> cache = new VicinityCache<Integer>(path(10), 1000);
+        Graph<Integer> near = cache.vicinity(5, 2);
+        Graph<Integer> far = cache.vicinity(0, 1);
+
+        // 7 is on the rim of vicinity(5, 2): an edge from it stays outside
+        cache.addEdge(7, 42);
+        assertSame(near, cache.vicinity(5, 2));
+
+        cache.addEdge(6, 43);
+        assertEquals(1, cache.getInvalidations());
+        Graph<Integer> refreshed = cache.vicinity(5, 2);
+        assertNotSame(near, refreshed);
+        assertTrue(refreshed.hasEdge(6, 43));
+        assertSame(far, cache.vicinity(0, 1));
+    }
+
+    public void testEvictsLeastRecentlyUsed() throws Exception {
+        // every vicinity of radius 1 on the path weighs 3 nodes + 2 edges
+        VicinityCache<Integer> cache = new VicinityCache<Integer>(path(100), 12);
+        Graph<Integer> first = cache.vicinity(10, 1);
+        cache.vicinity(20, 1);
+        cache.vicinity(10, 1);
+        cache.vicinity(30, 1);
+
+        assertEquals(10, cache.getWeight());
+        assertEquals(1, cache.getEvictions());
+        assertSame(first, cache.vicinity(10, 1));
+        assertEquals(2, cache.getHits());
+        cache.vicinity(20, 1);
+        assertEquals(4, cache.getMisses());
+    }
+
+    public void testNeverHoldsANeighborhoodHeavierThanTheBound() throws Exception {
+        VicinityCache<Integer> cache = new VicinityCache<Integer>(path(100), 12);
+        Graph<Integer> small = cache.vicinity(10, 1);
+        Graph<Integer> large = cache.vicinity(50, 3);
+
+        assertEquals(Sets.newHashSet(47, 48, 49, 50, 51, 52, 53), Sets.newHashSet(large.nodes()));
+        assertEquals(1, cache.size());
+        assertEquals(5, cache.getWeight());
+        assertSame(small, cache.vicinity(10, 1));
+        assertNotSame(large, cache.vicinity(50, 3));
+    }
+
+    public void testEdgesAddedBehindTheCacheDropEverything() throws Exception {
+        AdjacencyList<Integer> graph = path(10);
+        VicinityCache<Integer> cache = new VicinityCache<Integer>(graph, 1000);
+        Graph<Integer> before = cache.vicinity(5, 2);
+        cache.vicinity(0, 1);
+
+        graph.addEdge(5, 42);
+        Graph<Integer> after = cache.vicinity(5, 2);
+        assertNotSame(before, after);
+        assertTrue(after.hasEdge(5, 42));
+        assertEquals(2, cache.getInvalidations());
+    }
+
+    public void testNullCenter() throws Exception {
+        AdjacencyList<Integer> graph = path(3);
+        graph.addEdge(null, 0);
+        VicinityCache<Integer> cache = new VicinityCache<Integer>(graph, 1000);
+        Graph<Integer> vicinity = cache.vicinity(null, 1);
+        assertTrue(vicinity.hasEdge(null, 0));
+        assertSame(vicinity, cache.vicinity(null, 1));
+    }
+
+    private AdjacencyList<Integer> path(int size) {
+        AdjacencyList<Integer> graph = new AdjacencyList<Integer>();
+        for (int i = 0; i < size; i++) {
+            graph.addEdge(i, i + 1);
+        }
+        return graph;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph.layout;
+
+import com.google.common.collect.Iterables;
+import junit.framework.TestCase;
+import net.rhapso.graph.AdjacencyList;
+import net.rhapso.graph.Graph;
+
+public class ComponentLayoutTest extends TestCase {
+    public void testComponentsDoNotOverlap() throws Exception {
+        AdjacencyList<Integer> graph = new AdjacencyList<Integer>();
+        for (int component = 0; component < 12; component++) {
+            int root = component * 100;
+            for (int leaf = 1; leaf <= component + 1; leaf++) {
+                graph.addEdge(root, root + leaf);
+            }
+        }
+
+        ComponentLayout<Integer> componentLayout = new ComponentLayout<Integer>(graph);
+        assertEquals(12, componentLayout.components().size());
+        LayoutWeaver<Integer> weaver = componentLayout.layout(.1f, .1f, 30);
+        assertEquals(graph.size(), Iterables.size(weaver.nodes()));
+
+        float[][] boxes = new float[12][];
+        int i = 0;
+        for (Graph<Integer> component : componentLayout.components()) {
+            float[] box = {Float.MAX_VALUE, Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+            for (Integer node : component.nodes()) {
+                Point<Integer> point = weaver.get(node);
+                box[0] = Math.min(box[0], point.getX());
+                box[1] = Math.min(box[1], point.getY());
+                box[2] = Math.max(box[2], point.getX());
+                box[3] = Math.max(box[3], point.getY());
+            }
+            boxes[i++] = box;
+        }
+
+        for (int a = 0; a < boxes.length; a++) {
+            for (int b = a + 1; b < boxes.length; b++) {
+                boolean apart = boxes[a][2] < boxes[b][0] || boxes[b][2] < boxes[a][0]
+                        || boxes[a][3] < boxes[b][1] || boxes[b][3] < boxes[a][1];
+                assertTrue(apart);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph.layout;
+
+import junit.framework.TestCase;
+import net.rhapso.graph.AdjacencyList;
+
+import java.util.concurrent.TimeUnit;
+
+public class ConvergenceTest extends TestCase {
+    public void testStopsAtTargetEnergy() throws Exception {
+        ConvergenceResult result = new Convergence(.1f, .1f).targetEnergy(10).run(decreasing());
+        assertEquals(ConvergenceResult.Reason.TARGET_ENERGY, result.getReason());
+        assertEquals(10d, result.getEnergy(), 0d);
+        assertEquals(90, result.getIterations());
+    }
+
+    public void testStopsAtMaxIterations() throws Exception {
+        ConvergenceResult result = new Convergence(.1f, .1f).maxIterations(5).run(decreasing());
+        assertEquals(ConvergenceResult.Reason.MAX_ITERATIONS, result.getReason());
+        assertEquals(5, result.getIterations());
+    }
+
+    public void testStopsWhenOscillating() throws Exception {
+        ConvergenceResult result = new Convergence(.1f, .1f).stallDetection(20, 0.01).run(new Convergence.Pass() {
+            int calls;
+
+            public double step(float damping, float springConstant, float maxStep) {
+                return calls++ % 2 == 0 ? 5d : 7d;
+            }
+        });
+        assertEquals(ConvergenceResult.Reason.STALLED, result.getReason());
+        assertEquals(20, result.getIterations());
+    }
+
+    public void testStopsWhenOutOfTime() throws Exception {
+        ConvergenceResult result = new Convergence(.1f, .1f).stallDetection(0, 0).maxIterations(Integer.MAX_VALUE)
+                .timeBudget(20, TimeUnit.MILLISECONDS).run(new Convergence.Pass() {
+                    public double step(float damping, float springConstant, float maxStep) {
+                        return 1d;
+                    }
+                });
+        assertEquals(ConvergenceResult.Reason.TIME_BUDGET, result.getReason());
+        assertTrue(result.getElapsed(TimeUnit.MILLISECONDS) >= 20);
+    }
+
+    public void testTemperatureCoolsTheStep() throws Exception {
+        final float[] steps = new float[3];
+        new Convergence(.1f, .1f).maxIterations(3).temperature(1f, .5f).run(new Convergence.Pass() {
+            int calls;
+
+            public double step(float damping, float springConstant, float maxStep) {
+                steps[calls++] = maxStep;
+                return 1d;
+            }
+        });
+        assertEquals(1f, steps[0]);
+        assertEquals(.5f, steps[1]);
+        assertEquals(.25f, steps[2]);
+    }
+
+    public void testTemperatureCapsNodeMoves() throws Exception {
+        AdjacencyList<String> graph = new AdjacencyList<String>();
+        graph.addEdge("hello", "world");
+        graph.addEdge("hello", "panda");
+        LayoutWeaver<String> weaver = new LayoutWeaver<String>(graph);
+        Point<String> before = new Point<String>(weaver.get("panda"));
+        weaver.converge(new Convergence(.9f, .1f).maxIterations(1).temperature(.001f, 1f));
+        assertTrue(before.distance(weaver.get("panda")) <= .0011f);
+    }
+
+    private Convergence.Pass decreasing() {
+        return new Convergence.Pass() {
+            double energy = 100d;
+
+            public double step(float damping, float springConstant, float maxStep) {
+                return --energy;
+            }
+        };
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph.layout;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+
+public class ForceKernelsTest extends TestCase {
+    public void testFastestKernelAgreesWithScalarLoops() throws Exception {
+        Random random = new Random(7);
+        int size = 101;
+        float[] x = new float[size], y = new float[size], charge = new float[size];
+        int[] neighbors = new int[size - 1];
+        for (int i = 0; i < size; i++) {
+            x[i] = random.nextFloat();
+            y[i] = random.nextFloat();
+            charge[i] = 1 + random.nextInt(5);
+        }
+        for (int n = 0; n < neighbors.length; n++) {
+            neighbors[n] = n + 1;
+        }
+
+        ForceKernel scalar = new ScalarForces();
+        ForceKernel fastest = ForceKernels.fastest();
+        float[] expectedX = new float[size], expectedY = new float[size];
+        float[] actualX = new float[size], actualY = new float[size];
+
+        for (int i = 0; i < size; i++) {
+            scalar.repulsion(i, size, x, y, charge, expectedX, expectedY);
+            fastest.repulsion(i, size, x, y, charge, actualX, actualY);
+            assertEquals(expectedX[i], actualX[i], Math.abs(expectedX[i]) * 0.001f);
+            assertEquals(expectedY[i], actualY[i], Math.abs(expectedY[i]) * 0.001f);
+        }
+
+        scalar.attraction(0, neighbors, neighbors.length, .2f, x, y, expectedX, expectedY);
+        fastest.attraction(0, neighbors, neighbors.length, .2f, x, y, actualX, actualY);
+        assertEquals(expectedX[0], actualX[0], Math.abs(expectedX[0]) * 0.001f);
+        assertEquals(expectedY[0], actualY[0], Math.abs(expectedY[0]) * 0.001f);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph.layout;
+
+import junit.framework.TestCase;
+import net.rhapso.graph.AdjacencyList;
+
+public class InitialPlacementTest extends TestCase {
+    public void testSeededRandomPlacementIsReproducible() throws Exception {
+        AdjacencyList<Integer> graph = path(10);
+        LayoutWeaver<Integer> first = new LayoutWeaver<Integer>(graph, new RandomPlacement<Integer>(42L));
+        LayoutWeaver<Integer> second = new LayoutWeaver<Integer>(graph, new RandomPlacement<Integer>(42L));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(first.get(i).getX(), second.get(i).getX());
+            assertEquals(first.get(i).getY(), second.get(i).getY());
+        }
+    }
+
+    public void testRadialPlacementPutsHopsOnRings() throws Exception {
+        AdjacencyList<String> graph = new AdjacencyList<String>();
+        graph.addEdge("hub", "a");
+        graph.addEdge("hub", "b");
+        graph.addEdge("hub", "c");
+        graph.addEdge("a", "leaf");
+        LayoutWeaver<String> weaver = new LayoutWeaver<String>(graph, new RadialPlacement<String>());
+        assertEquals(1f, weaver.distance("hub", "a"), 0.0001f);
+        assertEquals(1f, weaver.distance("hub", "c"), 0.0001f);
+        assertEquals(2f, weaver.distance("hub", "leaf"), 0.0001f);
+    }
+
+    public void testPivotMdsUnfoldsAPath() throws Exception {
+        LayoutWeaver<Integer> weaver = new LayoutWeaver<Integer>(path(40), new PivotMdsPlacement<Integer>(10, 0L));
+        assertEquals(39f, weaver.distance(0, 39), 2f);
+        assertEquals(1f, weaver.distance(0, 1), 0.2f);
+    }
+
+    private AdjacencyList<Integer> path(int length) {
+        AdjacencyList<Integer> graph = new AdjacencyList<Integer>();
+        for (int i = 1; i < length; i++) {
+            graph.addEdge(i - 1, i);
+        }
+        return graph;
+    }
+}
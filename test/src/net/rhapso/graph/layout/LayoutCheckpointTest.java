@@ -0,0 +1,157 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph.layout;
+
+import junit.framework.TestCase;
+import net.rhapso.graph.AdjacencyList;
+import net.rhapso.graph.NodeCodecs;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+public class LayoutCheckpointTest extends TestCase {
+    private File file;
+
+    @Override
+    protected void setUp() throws Exception {
+        file = File.createTempFile("layout", ".checkpoint");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        file.delete();
+    }
+
+    public void testReloadContinuesTheSameRun() throws Exception {
+        AdjacencyList<String> graph = grid(6);
+        LayoutWeaver<String> original = new LayoutWeaver<String>(graph);
+        for (int i = 0; i < 20; i++) {
+            original.convergeOnce(.15f, .2f);
+        }
+        LayoutCheckpoint.save(original, NodeCodecs.strings(), file);
+
+        LayoutCheckpoint<String> checkpoint = LayoutCheckpoint.load(file, NodeCodecs.strings());
+        assertEquals(36, checkpoint.size());
+        LayoutWeaver<String> restored = new LayoutWeaver<String>(graph, checkpoint);
+        for (Point<String> point : original.nodes()) {
+            assertEquals(point.getX(), restored.get(point.getT()).getX());
+            assertEquals(point.getY(), restored.get(point.getT()).getY());
+        }
+
+        assertEquals(original.convergeOnce(.15f, .2f), restored.convergeOnce(.15f, .2f), 0d);
+        for (Point<String> point : original.nodes()) {
+            assertEquals(point.getX(), restored.get(point.getT()).getX());
+        }
+    }
+
+    public void testNewNodesKeepTheirPlacement() throws Exception {
+        AdjacencyList<Integer> small = new AdjacencyList<Integer>();
+        small.addEdge(1, 2);
+        LayoutWeaver<Integer> original = new LayoutWeaver<Integer>(small);
+        original.place(1, 5f, 6f);
+        LayoutCheckpoint.save(original, NodeCodecs.integers(), file);
+
+        AdjacencyList<Integer> larger = new AdjacencyList<Integer>();
+        larger.addEdge(3, 1);
+        larger.addEdge(1, 2);
+        LayoutWeaver<Integer> restored = new LayoutWeaver<Integer>(larger, LayoutCheckpoint.load(file, NodeCodecs.integers()));
+        assertEquals(5f, restored.get(1).getX());
+        assertEquals(6f, restored.get(1).getY());
+        assertTrue(restored.get(3).getX() <= 1f);
+    }
+
+    public void testRejectsOtherFiles() throws Exception {
+        FileOutputStream out = new FileOutputStream(file);
+        out.write("not a checkpoint".getBytes());
+        out.close();
+        try {
+            LayoutCheckpoint.load(file, NodeCodecs.strings());
+            fail();
+        } catch (IOException e) {
+        }
+    }
+
+    public void testRejectsTruncatedOrCorruptCheckpoints() throws Exception {
+        AdjacencyList<Integer> graph = new AdjacencyList<Integer>();
+        graph.addEdge(1, 2);
+        LayoutCheckpoint.save(new LayoutWeaver<Integer>(graph), NodeCodecs.integers(), file);
+        long length = file.length();
+
+        // header, then 4 arrays of 2 floats, then the offsets
+        assertRejected(8, -5);
+        assertRejected(8, 1 << 20);
+        assertRejected(12 + 32, 3);
+        assertRejected(12 + 32 + 4, -1);
+        assertRejected(12 + 32 + 8, 1 << 20);
+
+        RandomAccessFile raw = new RandomAccessFile(file, "rw");
+        raw.setLength(length - 1);
+        raw.close();
+        try {
+            LayoutCheckpoint.load(file, NodeCodecs.integers());
+            fail();
+        } catch (IOException e) {
+        }
+    }
+
+    /**
+     * Overwrites one int of the saved checkpoint, expects load to fail, then restores it.
+     */
+    private void assertRejected(long position, int value) throws IOException {
+        RandomAccessFile raw = new RandomAccessFile(file, "rw");
+        raw.seek(position);
+        int saved = raw.readInt();
+        raw.seek(position);
+        raw.writeInt(value);
+        raw.close();
+        try {
+            LayoutCheckpoint.load(file, NodeCodecs.integers());
+            fail();
+        } catch (IOException e) {
+        } finally {
+            raw = new RandomAccessFile(file, "rw");
+            raw.seek(position);
+            raw.writeInt(saved);
+            raw.close();
+        }
+    }
+
+    private AdjacencyList<String> grid(int side) {
+        AdjacencyList<String> graph = new AdjacencyList<String>();
+        for (int i = 0; i < side; i++) {
+            for (int j = 0; j < side; j++) {
+                if (i + 1 < side) {
+                    graph.addEdge(i + ":" + j, (i + 1) + ":" + j);
+                }
+                if (j + 1 < side) {
+                    graph.addEdge(i + ":" + j, i + ":" + (j + 1));
+                }
+            }
+        }
+        return graph;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph.layout;
+
+import junit.framework.TestCase;
+import net.rhapso.graph.AdjacencyList;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class LayoutServiceTest extends TestCase {
+    public void testPublishesSnapshotsAndCompletes() throws Exception {
+        final AtomicInteger snapshots = new AtomicInteger();
+        LayoutJob<Integer> job = new LayoutService().submit(new LayoutWeaver<Integer>(ring(30)),
+                new Convergence(.15f, .2f).stallDetection(0, 0).maxIterations(200), 0, TimeUnit.MILLISECONDS,
+                new SnapshotListener<Integer>() {
+                    public void onSnapshot(LayoutSnapshot<Integer> snapshot) {
+                        assertEquals(30, snapshot.size());
+                        snapshots.incrementAndGet();
+                    }
+                });
+
+        LayoutSnapshot<Integer> result = job.result().get(10, TimeUnit.SECONDS);
+        assertEquals(200, snapshots.get());
+        assertEquals(200, result.getIterations());
+        assertEquals(ConvergenceResult.Reason.MAX_ITERATIONS, job.getConvergenceResult().getReason());
+        assertNotNull(result.get(7));
+    }
+
+    public void testCancelStopsWithCurrentPositions() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        LayoutJob<Integer> job = new LayoutService().submit(new LayoutWeaver<Integer>(ring(30)),
+                new Convergence(.15f, .2f).stallDetection(0, 0).maxIterations(Integer.MAX_VALUE), 0, TimeUnit.MILLISECONDS,
+                new SnapshotListener<Integer>() {
+                    public void onSnapshot(LayoutSnapshot<Integer> snapshot) {
+                        started.countDown();
+                    }
+                });
+
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        job.cancel();
+        LayoutSnapshot<Integer> result = job.result().get(10, TimeUnit.SECONDS);
+        assertEquals(ConvergenceResult.Reason.CANCELLED, job.getConvergenceResult().getReason());
+        assertEquals(30, result.size());
+    }
+
+    public void testPauseHoldsTheLayout() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        LayoutJob<Integer> job = new LayoutService().submit(new LayoutWeaver<Integer>(ring(30)),
+                new Convergence(.15f, .2f).stallDetection(0, 0).maxIterations(Integer.MAX_VALUE), 0, TimeUnit.MILLISECONDS,
+                new SnapshotListener<Integer>() {
+                    public void onSnapshot(LayoutSnapshot<Integer> snapshot) {
+                        started.countDown();
+                    }
+                });
+
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        job.pause();
+        Thread.sleep(20);
+        int iterations = job.latest().getIterations();
+        Thread.sleep(50);
+        assertEquals(iterations, job.latest().getIterations());
+        assertFalse(job.result().isDone());
+
+        job.resume();
+        job.cancel();
+        assertTrue(job.result().get(10, TimeUnit.SECONDS).getIterations() >= iterations);
+    }
+
+    public void testCancellingTheFutureReleasesAPausedJob() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicReference<Thread> worker = new AtomicReference<Thread>();
+        LayoutService service = new LayoutService(new Executor() {
+            public void execute(Runnable runnable) {
+                Thread thread = new Thread(runnable, "layout");
+                thread.setDaemon(true);
+                worker.set(thread);
+                thread.start();
+            }
+        });
+        Convergence convergence = new Convergence(.15f, .2f).stallDetection(0, 0).maxIterations(Integer.MAX_VALUE);
+        LayoutJob<Integer> job = service.submit(new LayoutWeaver<Integer>(ring(30)), convergence, 0, TimeUnit.MILLISECONDS,
+                new SnapshotListener<Integer>() {
+                    public void onSnapshot(LayoutSnapshot<Integer> snapshot) {
+                        started.countDown();
+                    }
+                });
+
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        job.pause();
+        Thread.sleep(20);
+        assertTrue(job.result().cancel(true));
+        worker.get().join(10000);
+        assertFalse(worker.get().isAlive());
+        assertEquals(ConvergenceResult.Reason.CANCELLED, job.getConvergenceResult().getReason());
+    }
+
+    public void testJobsSharingAConvergenceKeepTheirOwnMonitor() throws Exception {
+        Convergence convergence = new Convergence(.15f, .2f).stallDetection(0, 0).maxIterations(Integer.MAX_VALUE);
+        LayoutService service = new LayoutService();
+        LayoutJob<Integer> first = service.submit(new LayoutWeaver<Integer>(ring(30)), convergence, 1, TimeUnit.SECONDS, null);
+        LayoutJob<Integer> second = service.submit(new LayoutWeaver<Integer>(ring(30)), convergence, 1, TimeUnit.SECONDS, null);
+
+        first.cancel();
+        first.result().get(10, TimeUnit.SECONDS);
+        Thread.sleep(20);
+        assertFalse(second.result().isDone());
+        second.cancel();
+        second.result().get(10, TimeUnit.SECONDS);
+    }
+
+    public void testNormalizedSnapshotFitsTheUnitSquare() throws Exception {
+        LayoutWeaver<Integer> weaver = new LayoutWeaver<Integer>(ring(10));
+        weaver.place(3, -4f, 20f);
+        LayoutSnapshot<Integer> snapshot = LayoutSnapshot.of(weaver).normalized();
+        assertEquals(0f, snapshot.lowerBoundary().getX(), 1e-6f);
+        assertEquals(1f, snapshot.upperBoundary().getY(), 1e-6f);
+        assertEquals(1f, snapshot.get(3).getY(), 1e-6f);
+        assertEquals(20f, weaver.get(3).getY());
+    }
+
+    public void testNormalizingAFlatSnapshotKeepsCoordinatesFinite() throws Exception {
+        LayoutWeaver<Integer> weaver = new LayoutWeaver<Integer>(ring(3));
+        weaver.place(0, 1f, 5f);
+        weaver.place(1, 2f, 5f);
+        weaver.place(2, 3f, 5f);
+        LayoutSnapshot<Integer> snapshot = LayoutSnapshot.of(weaver).normalized();
+        assertEquals(0f, snapshot.get(0).getY(), 0f);
+        assertEquals(0f, snapshot.get(2).getY(), 0f);
+        assertEquals(1f, snapshot.get(2).getX(), 1e-6f);
+    }
+
+    public void testSnapshotCarriesEdgesAsPositions() throws Exception {
+        LayoutWeaver<Integer> weaver = new LayoutWeaver<Integer>(ring(10));
+        LayoutSnapshot<Integer> snapshot = LayoutSnapshot.of(weaver).normalized();
+        assertEquals(10, snapshot.edgeCount());
+        for (int e = 0; e < snapshot.edgeCount(); e++) {
+            int from = snapshot.node(snapshot.edgeFrom(e)), to = snapshot.node(snapshot.edgeTo(e));
+            assertTrue(Math.abs(from - to) == 1 || Math.abs(from - to) == 9);
+        }
+    }
+
+    private AdjacencyList<Integer> ring(int size) {
+        AdjacencyList<Integer> graph = new AdjacencyList<Integer>();
+        for (int i = 0; i < size; i++) {
+            graph.addEdge(i, (i + 1) % size);
+        }
+        return graph;
+    }
+}
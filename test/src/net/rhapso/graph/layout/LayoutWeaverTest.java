@@ -31,6 +31,8 @@ import net.rhapso.graph.AdjacencyList;
 import net.rhapso.graph.Edge;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class LayoutWeaverTest extends BaseTestCase {
     public void testDistanceBetweenDisconnectedNodesIncreases() throws Exception {
@@ -43,6 +45,136 @@ public class LayoutWeaverTest extends BaseTestCase {
         assertTrue(weaver.distance("world", "panda") > worldPanda);
     }
 
+    public void testBarnesHutPushesDisconnectedNodesApart() throws Exception {
+        AdjacencyList<String> graph = new AdjacencyList<String>();
+        graph.addEdge("hello", "world");
+        graph.addEdge("hello", "panda");
+        graph.addEdge("hello", "bear");
+        LayoutWeaver<String> weaver = new LayoutWeaver<String>(graph);
+        weaver.setTheta(.8f);
+        // close together and away from the hub, so attraction cannot outweigh their repulsion
+        weaver.place("hello", 0f, 0f);
+        weaver.place("world", 1f, .05f);
+        weaver.place("panda", 1f, -.05f);
+        weaver.place("bear", -1f, 0f);
+        float worldPanda = weaver.distance("world", "panda");
+        weaver.convergeOnce(.1f, .1f);
+        assertTrue(weaver.distance("world", "panda") > worldPanda);
+    }
+
+    public void testMatchesPointArithmetic() throws Exception {
+        AdjacencyList<String> graph = new AdjacencyList<String>();
+        graph.addEdge("hello", "world");
+        graph.addEdge("hello", "panda");
+        LayoutWeaver<String> weaver = new LayoutWeaver<String>(graph);
+        Point<String> hello = new Point<String>(weaver.get("hello"));
+        Point<String> world = new Point<String>(weaver.get("world"));
+        Point<String> panda = new Point<String>(weaver.get("panda"));
+
+        Vector momentum = hello.coulombRepulsion(world, 2f, 1f)
+                .add(hello.coulombRepulsion(panda, 2f, 1f))
+                .add(hello.hookesAttraction(world).multiply(.1f))
+                .add(hello.hookesAttraction(panda).multiply(.1f))
+                .multiply(.5f);
+        hello.move(momentum);
+
+        weaver.convergeOnce(.5f, .1f);
+        assertEquals(hello.getX(), weaver.get("hello").getX(), 0.00001f);
+        assertEquals(hello.getY(), weaver.get("hello").getY(), 0.00001f);
+    }
+
+    public void testPointsReadThroughToTheLayout() throws Exception {
+        AdjacencyList<String> graph = new AdjacencyList<String>();
+        graph.addEdge("hello", "world");
+        LayoutWeaver<String> weaver = new LayoutWeaver<String>(graph);
+        Point<String> hello = weaver.get("hello");
+        float x = hello.getX();
+        weaver.convergeOnce(.1f, .1f);
+        assertFalse(x == hello.getX());
+        assertEquals(weaver.get("hello").getX(), hello.getX());
+        assertEquals(1, weaver.neighbors(new Point<String>(0f, 0f, "hello")));
+    }
+
+    public void testParallelPassIsIndependentOfThreadCount() throws Exception {
+        AdjacencyList<Integer> graph = new AdjacencyList<Integer>();
+        for (int i = 1; i < 600; i++) {
+            graph.addEdge(i, i / 3);
+        }
+        LayoutWeaver<Integer> single = new LayoutWeaver<Integer>(graph);
+        LayoutWeaver<Integer> many = new LayoutWeaver<Integer>(graph);
+        for (Point<Integer> point : single.nodes()) {
+            Point<Integer> twin = many.get(point.getT());
+            twin.dilate(new Vector(0f, 0f));
+            twin.move(new Vector(point.getX(), point.getY()));
+        }
+
+        ExecutorService one = Executors.newFixedThreadPool(1);
+        ExecutorService four = Executors.newFixedThreadPool(4);
+        try {
+            single.setExecutor(one);
+            many.setExecutor(four);
+            for (int i = 0; i < 3; i++) {
+                assertEquals(single.convergeOnce(.1f, .1f), many.convergeOnce(.1f, .1f), 0d);
+            }
+        } finally {
+            one.shutdown();
+            four.shutdown();
+        }
+
+        for (Point<Integer> point : single.nodes()) {
+            assertEquals(point.getX(), many.get(point.getT()).getX());
+            assertEquals(point.getY(), many.get(point.getT()).getY());
+        }
+    }
+
+    public void testAddedEdgesKeepExistingPositions() throws Exception {
+        AdjacencyList<Integer> graph = new AdjacencyList<Integer>();
+        for (int i = 1; i < 20; i++) {
+            graph.addEdge(i - 1, i);
+        }
+        LayoutWeaver<Integer> weaver = new LayoutWeaver<Integer>(graph);
+        for (int i = 0; i < 100; i++) {
+            weaver.convergeOnce(.1f, .1f);
+        }
+        float x = weaver.get(19).getX();
+
+        weaver.addEdge(19, 20);
+        weaver.addEdge(0, 1);
+        assertEquals(x, weaver.get(19).getX());
+        assertEquals(21, weaver.size());
+        assertEquals(20, Iterables.size(weaver.edges()));
+        assertEquals(2, weaver.neighbors(weaver.get(19)));
+
+        weaver.convergeDelta(.1f, .1f, 1, 5);
+        float meanDistance = 0f;
+        for (int i = 0; i < 19; i++) {
+            meanDistance += weaver.distance(19, i) / 19;
+        }
+        assertTrue(weaver.distance(19, 20) < meanDistance);
+    }
+
+    public void testEdgesAddedToTheSourceGraphFirst() throws Exception {
+        AdjacencyList<Integer> graph = new AdjacencyList<Integer>();
+        for (int i = 1; i < 5; i++) {
+            graph.addEdge(i - 1, i);
+        }
+        LayoutWeaver<Integer> weaver = new LayoutWeaver<Integer>(graph);
+
+        graph.addEdge(4, 5);
+        weaver.addEdge(4, 5);
+        assertNotNull(weaver.get(5));
+        assertEquals(6, weaver.size());
+        assertEquals(2, weaver.neighbors(weaver.get(4)));
+        assertEquals(5, Iterables.size(weaver.edges()));
+
+        weaver.addEdge(5, 4);
+        assertEquals(1, weaver.neighbors(weaver.get(5)));
+        assertEquals(6, Iterables.size(weaver.edges()));
+
+        weaver.convergeDelta(.1f, .1f, 1, 5);
+        assertFalse(Float.isNaN(weaver.get(5).getX()));
+    }
+
     public void testMovePoint() throws Exception {
         AdjacencyList<String> graph = new AdjacencyList<String>();
         graph.addEdge("hello", "world");
@@ -100,6 +232,45 @@ public class LayoutWeaverTest extends BaseTestCase {
         assertFalse(layoutWeaver.upperBoundary().getY() > 1f);
     }
 
+    public void testNormalizeOnlyChangesTheView() throws Exception {
+        AdjacencyList<String> graph = new AdjacencyList<String>();
+        graph.addEdge("hello", "dolly");
+        graph.addEdge("hello", "world");
+        LayoutWeaver<String> layoutWeaver = new LayoutWeaver<String>(graph);
+        layoutWeaver.place("hello", -3f, -1f);
+        layoutWeaver.place("dolly", 1f, 1f);
+        layoutWeaver.place("world", 5f, 3f);
+
+        layoutWeaver.normalize();
+        assertEquals(0f, layoutWeaver.get("hello").getX());
+        assertEquals(.5f, layoutWeaver.get("dolly").getX());
+        assertEquals(.5f, layoutWeaver.get("dolly").getY());
+        assertEquals(1f, layoutWeaver.upperBoundary().getY());
+        assertEquals(1f, layoutWeaver.forceLayout().getX(layoutWeaver.idOf("dolly")));
+
+        layoutWeaver.place("dolly", .25f, .75f);
+        assertEquals(.25f, layoutWeaver.get("dolly").getX(), 1e-6f);
+        assertEquals(.75f, layoutWeaver.get("dolly").getY(), 1e-6f);
+    }
+
+    public void testBoundsFollowConvergence() throws Exception {
+        AdjacencyList<Integer> graph = new AdjacencyList<Integer>();
+        for (int i = 0; i < 50; i++) {
+            graph.addEdge(i, (i * 7 + 3) % 50);
+        }
+        LayoutWeaver<Integer> layoutWeaver = new LayoutWeaver<Integer>(graph);
+        for (int pass = 0; pass < 10; pass++) {
+            layoutWeaver.convergeOnce(.15f, .2f);
+            float minX = Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+            for (Point<Integer> point : layoutWeaver.nodes()) {
+                minX = Math.min(minX, point.getX());
+                maxY = Math.max(maxY, point.getY());
+            }
+            assertEquals(minX, layoutWeaver.lowerBoundary().getX());
+            assertEquals(maxY, layoutWeaver.upperBoundary().getY());
+        }
+    }
+
     public void testDirectionalityIsPreserved() throws Exception {
         AdjacencyList<String> graph = new AdjacencyList<String>();
         graph.addEdge("hello", "world");
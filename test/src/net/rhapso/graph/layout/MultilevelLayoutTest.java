@@ -0,0 +1,70 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph.layout;
+
+import com.google.common.collect.Iterables;
+import junit.framework.TestCase;
+import net.rhapso.graph.AdjacencyList;
+
+public class MultilevelLayoutTest extends TestCase {
+    public void testCoarsensUntilSmall() throws Exception {
+        MultilevelLayout<Integer> multilevel = new MultilevelLayout<Integer>(grid(20), 10);
+        assertTrue(multilevel.levels() > 3);
+        assertTrue(multilevel.level(multilevel.levels() - 1).size() < 40);
+        for (int level = 1; level < multilevel.levels(); level++) {
+            assertTrue(multilevel.level(level).size() < multilevel.level(level - 1).size());
+        }
+    }
+
+    public void testLayoutCoversEveryNode() throws Exception {
+        AdjacencyList<Integer> graph = grid(12);
+        LayoutWeaver<Integer> weaver = new MultilevelLayout<Integer>(graph, 10).layout(.1f, .1f, 20);
+        assertEquals(144, Iterables.size(weaver.nodes()));
+        for (Point<Integer> point : weaver.nodes()) {
+            assertFalse(Float.isNaN(point.getX()));
+            assertFalse(Float.isNaN(point.getY()));
+        }
+        assertTrue(weaver.distance(0, 143) > weaver.distance(0, 1));
+    }
+
+    public void testRefinesWithBarnesHutUnlessToldOtherwise() throws Exception {
+        MultilevelLayout<Integer> multilevel = new MultilevelLayout<Integer>(grid(8), 10);
+        assertEquals(.8f, multilevel.layout(.1f, .1f, 1).getTheta(), 0f);
+        multilevel.setTheta(0f);
+        assertEquals(0f, multilevel.layout(.1f, .1f, 1).getTheta(), 0f);
+    }
+
+    private AdjacencyList<Integer> grid(int side) {
+        AdjacencyList<Integer> graph = new AdjacencyList<Integer>();
+        for (int row = 0; row < side; row++) {
+            for (int column = 0; column < side; column++) {
+                int node = row * side + column;
+                if (column + 1 < side) graph.addEdge(node, node + 1);
+                if (row + 1 < side) graph.addEdge(node, node + side);
+            }
+        }
+        return graph;
+    }
+}
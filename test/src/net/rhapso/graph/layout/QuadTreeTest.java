@@ -0,0 +1,83 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph.layout;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+
+public class QuadTreeTest extends TestCase {
+    public void testSmallThetaMatchesAllPairs() throws Exception {
+        assertMatchesAllPairs(0.0001f, 0.0001f);
+    }
+
+    public void testApproximationStaysClose() throws Exception {
+        assertMatchesAllPairs(0.5f, 0.05f);
+    }
+
+    public void testCoincidentBodiesShareALeaf() throws Exception {
+        float[] x = {0f, 1f, 1f};
+        float[] y = {0f, 1f, 1f};
+        int[] charges = {1, 1, 1};
+        float[] forceX = new float[3], forceY = new float[3];
+        QuadTree tree = new QuadTree();
+        tree.build(x, y, charges, 3);
+        tree.accumulate(0, 0.5f, forceX, forceY);
+        assertEquals(-0.99999994f, forceX[0], 0.0001f);
+        assertEquals(-0.99999994f, forceY[0], 0.0001f);
+    }
+
+    private void assertMatchesAllPairs(float theta, float tolerance) {
+        Random random = new Random(42);
+        int count = 200;
+        float[] x = new float[count], y = new float[count];
+        int[] charges = new int[count];
+        for (int i = 0; i < count; i++) {
+            x[i] = random.nextFloat();
+            y[i] = random.nextFloat();
+            charges[i] = 1 + random.nextInt(4);
+        }
+
+        QuadTree tree = new QuadTree();
+        tree.build(x, y, charges, count);
+        float[] forceX = new float[count], forceY = new float[count];
+        double error = 0d, magnitude = 0d;
+
+        for (int i = 0; i < count; i++) {
+            tree.accumulate(i, theta, forceX, forceY);
+            Point<Integer> point = new Point<Integer>(x[i], y[i], i);
+            Vector expected = new Vector(0, 0);
+            for (int j = 0; j < count; j++) {
+                if (i != j) {
+                    expected = expected.add(point.coulombRepulsion(new Point<Integer>(x[j], y[j], j), charges[i] * charges[j], 1f));
+                }
+            }
+            error += new Vector(forceX[i] - expected.getX(), forceY[i] - expected.getY()).length();
+            magnitude += expected.length();
+        }
+
+        assertTrue(error / magnitude < tolerance);
+    }
+}
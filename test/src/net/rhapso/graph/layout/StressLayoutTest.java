@@ -0,0 +1,62 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2010 Fabrice Medio <fmedio@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.rhapso.graph.layout;
+
+import junit.framework.TestCase;
+import net.rhapso.graph.AdjacencyList;
+
+public class StressLayoutTest extends TestCase {
+    public void testDistancesFollowHops() throws Exception {
+        AdjacencyList<Integer> graph = new AdjacencyList<Integer>();
+        for (int i = 0; i < 30; i++) {
+            graph.addEdge(i, (i + 1) % 30);
+        }
+        Layout<Integer> layout = new StressLayout<Integer>(graph, 10);
+        ConvergenceResult result = layout.converge(new Convergence(0f, 0f).targetEnergy(1e-6).maxIterations(500));
+        assertTrue(result.getIterations() < 500);
+
+        // a 30 cycle comes out as a circle, edges a bit longer than one to trade off the chords
+        float diameter = 30f / (float) Math.PI;
+        for (int i = 0; i < 15; i++) {
+            assertEquals(1f, layout.distance(i, i + 1), 0.25f);
+            assertEquals(diameter, layout.distance(i, i + 15), diameter * 0.2f);
+        }
+    }
+
+    public void testIsDeterministic() throws Exception {
+        AdjacencyList<Integer> graph = new AdjacencyList<Integer>();
+        for (int i = 1; i < 50; i++) {
+            graph.addEdge(i, i / 2);
+        }
+        StressLayout<Integer> first = new StressLayout<Integer>(graph);
+        StressLayout<Integer> second = new StressLayout<Integer>(graph);
+        first.converge(new Convergence(0f, 0f).maxIterations(20));
+        second.converge(new Convergence(0f, 0f).maxIterations(20));
+        for (int i = 0; i < 50; i++) {
+            assertEquals(first.get(i).getX(), second.get(i).getX());
+            assertEquals(first.get(i).getY(), second.get(i).getY());
+        }
+    }
+}